@@ -0,0 +1,440 @@
+package elevatorenv;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.intranet.elevator.model.operate.controller.Controller;
+import org.intranet.elevator.model.operate.controller.DestinationDispatchController;
+import org.intranet.elevator.model.operate.controller.MetaController;
+import org.intranet.elevator.model.operate.controller.SimpleController;
+import org.intranet.sim.Simulator;
+import org.intranet.sim.batch.ParameterSweep;
+import org.intranet.sim.clock.FastForwardClock;
+import org.intranet.statistics.Column;
+import org.intranet.statistics.Table;
+import org.intranet.ui.ChoiceParameter;
+import org.intranet.ui.Parameter;
+import org.intranet.ui.SingleValueParameter;
+
+/**
+ * Runs a series of simulations without any user interface, and writes one
+ * line per run as CSV or as JSON. Every combination of the given parameter
+ * values is run, see {@link ParameterSweep}. Parameters that are not given keep
+ * their preferred value, as in the GUI.
+ * <p>
+ * Usage:
+ * </p>
+ *
+ * <pre>
+ * BatchRunner -simulation "Random Rider Insertion" [-controller NAME,...]
+ *     [-set KEY=VALUE,...]... [-range KEY=MIN:MAX:INC]... [-seeds SEED,...]
+ *     [-endtime MS] [-format csv|json] [-threads N] [-out FILE]
+ * </pre>
+ * <p>
+ * A KEY is a {@link Simulator.Keys} name, such as FLOORS, or its description,
+ * such as "Number of floors". Only the MetaController, SimpleController and
+ * DestinationDispatchController are available, the others need a user or
+ * agents.
+ * </p>
+ */
+public class BatchRunner {
+	/**
+	 * Output formats.
+	 */
+	public enum Format {
+		/**
+		 * Comma separated values, with a header line.
+		 */
+		CSV,
+		/**
+		 * A JSON object per line.
+		 */
+		JSON
+	}
+
+	/**
+	 * Default simulation time at which runs stop if events are still pending.
+	 * Some controllers keep the cars moving forever while a person never gets
+	 * to their destination. Such runs are reported as truncated.
+	 */
+	public static final long DEFAULT_END_TIME = 99000000;
+
+	private final Simulator simulator;
+	/**
+	 * The values to run for each parameter that is varied or set.
+	 */
+	private final Map<SingleValueParameter, List<String>> values = new LinkedHashMap<>();
+	private List<String> columns;
+	private long endTime = DEFAULT_END_TIME;
+
+	/**
+	 * @param simulator the simulation to run. It is duplicated for each run.
+	 */
+	public BatchRunner(final Simulator simulator) {
+		super();
+		this.simulator = simulator;
+	}
+
+	/**
+	 * @param description the description of a simulation, as in
+	 *                    {@link EnvironmentInterface#createSimulations(List)}.
+	 * @return a runner for the simulation, with the controllers that can run
+	 *         without a user.
+	 * @throws IllegalArgumentException if there is no such simulation.
+	 */
+	public static BatchRunner forSimulation(final String description) {
+		final List<Controller> controllers = new ArrayList<>(3);
+		controllers.add(new MetaController());
+		controllers.add(new SimpleController());
+		controllers.add(new DestinationDispatchController());
+		for (final Simulator sim : EnvironmentInterface.createSimulations(controllers)) {
+			if (sim.getDescription().equals(description)) {
+				return new BatchRunner(sim);
+			}
+		}
+		throw new IllegalArgumentException("No Simulator exists with the name " + description);
+	}
+
+	/**
+	 * @param key    a {@link Simulator.Keys} name or description
+	 * @param values the values to run the parameter with
+	 * @throws IllegalArgumentException if the simulation has no such parameter.
+	 */
+	public void setValues(final String key, final List<String> values) {
+		this.values.put(getParameter(key), new ArrayList<>(values));
+	}
+
+	/**
+	 * @param key a {@link Simulator.Keys} name or description
+	 * @param min the first value
+	 * @param max the last value
+	 * @param inc the step between the values
+	 * @throws IllegalArgumentException if the simulation has no such parameter.
+	 */
+	public void setRange(final String key, final String min, final String max, final String inc) {
+		final SingleValueParameter parameter = getParameter(key);
+		final List<String> range = new ArrayList<>();
+		for (final Object value : parameter.getValues(min, max, inc)) {
+			range.add(value.toString());
+		}
+		this.values.put(parameter, range);
+	}
+
+	/**
+	 * @param time the simulation time at which runs stop, even if events are
+	 *             still pending.
+	 */
+	public void setEndTime(final long time) {
+		this.endTime = time;
+	}
+
+	private SingleValueParameter getParameter(final String key) {
+		for (final Parameter parameter : this.simulator.getParameters()) {
+			if (parameter.getKey().name().equalsIgnoreCase(key) || parameter.getDescription().equals(key)) {
+				return (SingleValueParameter) parameter;
+			}
+		}
+		throw new IllegalArgumentException(
+				"Simulation " + this.simulator.getDescription() + " has no parameter " + key);
+	}
+
+	/**
+	 * @return a parameter set for each combination of the parameter values. Each
+	 *         set holds all parameters of the simulation.
+	 */
+	public List<List<Parameter>> createParameterSets() {
+		List<List<Parameter>> sets = new ArrayList<>();
+		sets.add(Collections.<Parameter>emptyList());
+		for (final Parameter parameter : this.simulator.getParameters()) {
+			final SingleValueParameter p = (SingleValueParameter) parameter;
+			List<String> parameterValues = this.values.get(p);
+			if (parameterValues == null) {
+				parameterValues = Collections.singletonList(p.getUIValue().toString());
+			}
+			final List<List<Parameter>> newSets = new ArrayList<>(sets.size() * parameterValues.size());
+			for (final List<Parameter> set : sets) {
+				for (final String value : parameterValues) {
+					final List<Parameter> newSet = new ArrayList<>(set);
+					newSet.add(copyWithValue(p, value));
+					newSets.add(newSet);
+				}
+			}
+			sets = newSets;
+		}
+		return sets;
+	}
+
+	private static SingleValueParameter copyWithValue(final SingleValueParameter p, final String value) {
+		final SingleValueParameter copy;
+		if (p instanceof ChoiceParameter) {
+			// the choices (controllers) can not be cloned by serialization
+			final ChoiceParameter choice = (ChoiceParameter) p;
+			copy = new ChoiceParameter(choice.getKey(), choice.getLegalValues(), choice.getChoiceValue(),
+					choice.getType());
+		} else {
+			copy = (SingleValueParameter) p.clone();
+		}
+		copy.setValueFromUI(value);
+		return copy;
+	}
+
+	/**
+	 * Run all combinations and write a line for each run, as they finish.
+	 *
+	 * @param out     where the lines go
+	 * @param format  the format of the lines
+	 * @param threads the number of runs to do at the same time
+	 * @return true if all runs finished, false if one failed.
+	 * @throws InterruptedException if interrupted while waiting for the runs.
+	 */
+	public boolean run(final Writer out, final Format format, final int threads) throws InterruptedException {
+		final PrintWriter writer = new PrintWriter(out);
+		final List<List<Parameter>> sets = createParameterSets();
+		final ParameterSweep sweep = new ParameterSweep(this.simulator, threads);
+		sweep.setEndTime(this.endTime);
+		final boolean succeeded = sweep.run(sets.iterator(),
+				new ParameterSweep.Listener() {
+					@Override
+					public void runFinished(final List<Parameter> params, final Simulator sim,
+							final List<Table> statistics) {
+						final Map<String, Object> row = createRow(params, sim, statistics);
+						synchronized (writer) {
+							write(writer, format, row);
+							writer.flush();
+						}
+					}
+
+					@Override
+					public void runFailed(final List<Parameter> params, final Exception e) {
+						synchronized (writer) {
+							System.err.println("Run " + params + " failed: " + e);
+						}
+					}
+				});
+		writer.flush();
+		return succeeded;
+	}
+
+	private Map<String, Object> createRow(final List<Parameter> params, final Simulator sim,
+			final List<Table> statistics) {
+		final Map<String, Object> row = new LinkedHashMap<>();
+		row.put("Simulation", sim.getDescription());
+		for (final Parameter parameter : params) {
+			row.put(parameter.getDescription(), ((SingleValueParameter) parameter).getUIValue());
+		}
+		final FastForwardClock clock = (FastForwardClock) sim.getClock();
+		row.put("End Time", clock.getEndTime());
+		row.put("Events", clock.getProcessedEvents());
+		row.put("Stalled", clock.isStalled());
+		row.put("Truncated", clock.isTruncated());
+		for (final Table table : statistics) {
+			for (int c = 0; c < table.getColumnCount(); c++) {
+				final Column column = table.getColumn(c);
+				final String name = table.getName() + " ";
+				row.put(name + "Avg " + column.getHeading(), column.getAverage());
+				row.put(name + "Min " + column.getHeading(), column.getMin());
+				row.put(name + "Max " + column.getHeading(), column.getMax());
+			}
+		}
+		return row;
+	}
+
+	private void write(final PrintWriter writer, final Format format, final Map<String, Object> row) {
+		if (format == Format.JSON) {
+			final StringBuilder line = new StringBuilder("{");
+			for (final Map.Entry<String, Object> entry : row.entrySet()) {
+				if (line.length() > 1) {
+					line.append(',');
+				}
+				line.append(jsonString(entry.getKey())).append(':').append(jsonValue(entry.getValue()));
+			}
+			writer.println(line.append('}'));
+			return;
+		}
+		if (this.columns == null) {
+			// the statistics are only known after the first run
+			this.columns = new ArrayList<>(row.keySet());
+			writer.println(csvLine(this.columns));
+		}
+		final List<Object> fields = new ArrayList<>(this.columns.size());
+		for (final String column : this.columns) {
+			fields.add(row.get(column));
+		}
+		writer.println(csvLine(fields));
+	}
+
+	private static String csvLine(final List<?> fields) {
+		final StringBuilder line = new StringBuilder();
+		for (final Object field : fields) {
+			if (line.length() > 0) {
+				line.append(',');
+			}
+			final String text = field == null ? "" : field.toString();
+			if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0) {
+				line.append('"').append(text.replace("\"", "\"\"")).append('"');
+			} else {
+				line.append(text);
+			}
+		}
+		return line.toString();
+	}
+
+	private static String jsonValue(final Object value) {
+		if (value instanceof Boolean) {
+			return value.toString();
+		}
+		if (value instanceof Number) {
+			final double d = ((Number) value).doubleValue();
+			return Double.isNaN(d) || Double.isInfinite(d) ? "null" : value.toString();
+		}
+		return value == null ? "null" : jsonString(value.toString());
+	}
+
+	private static String jsonString(final String text) {
+		final StringBuilder sb = new StringBuilder("\"");
+		for (int i = 0; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			if (c == '"' || c == '\\') {
+				sb.append('\\').append(c);
+			} else if (c < ' ') {
+				sb.append(String.format("\\u%04x", (int) c));
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+	private static void usage(final String error) {
+		System.err.println(error);
+		System.err.println("Usage: BatchRunner -simulation NAME [-controller NAME,...] [-set KEY=VALUE,...]...");
+		System.err.println("         [-range KEY=MIN:MAX:INC]... [-seeds SEED,...] [-endtime MS]");
+		System.err.println("         [-format csv|json] [-threads N] [-out FILE]");
+		System.exit(2);
+	}
+
+	/**
+	 * Command line entry point, see the class description.
+	 *
+	 * @param args the command line arguments
+	 * @throws Exception if the output can not be written
+	 */
+	public static void main(final String[] args) throws Exception {
+		System.exit(execute(args));
+	}
+
+	/**
+	 * Run the simulations given on the command line, see the class description.
+	 * The results go to the standard output, unless a file is given. Anything
+	 * else printed on the standard output while the simulations are built and
+	 * run, such as warnings, goes to the standard error instead, so the results
+	 * can be read as they are.
+	 *
+	 * @param args the command line arguments
+	 * @return the exit status: 0 if all runs finished, 1 if one failed.
+	 * @throws Exception if the output can not be written
+	 */
+	static int execute(final String[] args) throws Exception {
+		final PrintStream stdout = System.out;
+		System.setOut(System.err);
+		try {
+			return execute(args, stdout);
+		} finally {
+			System.setOut(stdout);
+		}
+	}
+
+	private static int execute(final String[] args, final PrintStream stdout) throws Exception {
+		System.setProperty("java.awt.headless", "true");
+		String simulation = null;
+		final List<String[]> settings = new ArrayList<>();
+		Format format = Format.CSV;
+		int threads = Runtime.getRuntime().availableProcessors();
+		long endTime = DEFAULT_END_TIME;
+		String outFile = null;
+		for (int i = 0; i < args.length; i++) {
+			if (i + 1 == args.length) {
+				usage("Missing value for " + args[i]);
+			}
+			final String option = args[i];
+			final String value = args[++i];
+			switch (option) {
+			case "-simulation":
+				simulation = value;
+				break;
+			case "-controller":
+				settings.add(new String[] { "set", Simulator.Keys.CONTROLLER.name() + "=" + value });
+				break;
+			case "-seeds":
+				settings.add(new String[] { "set", Simulator.Keys.RANDOMSEED.name() + "=" + value });
+				break;
+			case "-set":
+			case "-range":
+				settings.add(new String[] { option.substring(1), value });
+				break;
+			case "-format":
+				format = Format.valueOf(value.toUpperCase());
+				break;
+			case "-endtime":
+				endTime = Long.parseLong(value);
+				break;
+			case "-threads":
+				threads = Integer.parseInt(value);
+				break;
+			case "-out":
+				outFile = value;
+				break;
+			default:
+				usage("Unknown option " + option);
+			}
+		}
+		if (simulation == null) {
+			usage("No simulation given");
+		}
+
+		final BatchRunner runner = forSimulation(simulation);
+		runner.setEndTime(endTime);
+		for (final String[] setting : settings) {
+			final int is = setting[1].indexOf('=');
+			if (is < 0) {
+				usage("Expected KEY=VALUE but got " + setting[1]);
+			}
+			final String key = setting[1].substring(0, is);
+			final String value = setting[1].substring(is + 1);
+			if ("set".equals(setting[0])) {
+				runner.setValues(key, Arrays.asList(value.split(",")));
+			} else {
+				final String[] range = value.split(":");
+				if (range.length != 3) {
+					usage("Expected MIN:MAX:INC but got " + value);
+				}
+				runner.setRange(key, range[0], range[1], range[2]);
+			}
+		}
+
+		final Writer out = new BufferedWriter(new OutputStreamWriter(
+				outFile == null ? stdout : new FileOutputStream(outFile), StandardCharsets.UTF_8));
+		final boolean succeeded;
+		try {
+			succeeded = runner.run(out, format, threads);
+		} finally {
+			if (outFile == null) {
+				out.flush();
+			} else {
+				out.close();
+			}
+		}
+		return succeeded ? 0 : 1;
+	}
+}
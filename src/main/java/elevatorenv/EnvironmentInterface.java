@@ -13,15 +13,18 @@ import javax.swing.JComponent;
 import org.intranet.elevator.EveningTrafficElevatorSimulator;
 import org.intranet.elevator.MorningTrafficElevatorSimulator;
 import org.intranet.elevator.NoIdleElevatorCarSimulator;
+import org.intranet.elevator.ProfileElevatorSimulator;
 import org.intranet.elevator.RandomElevatorSimulator;
 import org.intranet.elevator.ThreePersonBugSimulator;
 import org.intranet.elevator.ThreePersonElevatorSimulator;
 import org.intranet.elevator.ThreePersonTwoElevatorSimulator;
+import org.intranet.elevator.TraceElevatorSimulator;
 import org.intranet.elevator.UpToFourThenDownSimulator;
 import org.intranet.elevator.ticket492simulator;
 import org.intranet.elevator.model.Car;
 import org.intranet.elevator.model.operate.Building;
 import org.intranet.elevator.model.operate.controller.Controller;
+import org.intranet.elevator.model.operate.controller.DestinationDispatchController;
 import org.intranet.elevator.model.operate.controller.ManualController;
 import org.intranet.elevator.model.operate.controller.MetaController;
 import org.intranet.elevator.model.operate.controller.SimpleController;
@@ -585,13 +588,23 @@ public class EnvironmentInterface extends EIDefaultImpl implements SimulationApp
 	/************************************************************/
 	@Override
 	public List<Simulator> getSimulations() {
-		final List<Controller> controllers = new ArrayList<>(4);
+		final List<Controller> controllers = new ArrayList<>(5);
 		controllers.add(new MetaController());
 		controllers.add(new SimpleController());
+		controllers.add(new DestinationDispatchController());
 		controllers.add(new ManualController());
 		controllers.add(new GOALController(this));
+		return createSimulations(controllers);
+	}
 
-		final List<Simulator> simulations = new ArrayList<>(9);
+	/**
+	 * The catalogue of all simulations, independent of an environment instance.
+	 *
+	 * @param controllers the controllers the simulations can choose from
+	 * @return a new instance of each available simulation.
+	 */
+	public static List<Simulator> createSimulations(final List<Controller> controllers) {
+		final List<Simulator> simulations = new ArrayList<>(11);
 		simulations.add(new RandomElevatorSimulator(controllers));
 		simulations.add(new MorningTrafficElevatorSimulator(controllers));
 		simulations.add(new EveningTrafficElevatorSimulator(controllers));
@@ -601,6 +614,8 @@ public class EnvironmentInterface extends EIDefaultImpl implements SimulationApp
 		simulations.add(new NoIdleElevatorCarSimulator(controllers));
 		simulations.add(new ThreePersonTwoElevatorSimulator(controllers));
 		simulations.add(new ticket492simulator(controllers));
+		simulations.add(new ProfileElevatorSimulator(controllers));
+		simulations.add(new TraceElevatorSimulator(controllers));
 		return simulations;
 	}
 
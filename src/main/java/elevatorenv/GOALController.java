@@ -7,7 +7,6 @@ package elevatorenv;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -15,7 +14,6 @@ import java.util.Map;
 import org.intranet.elevator.model.Car;
 import org.intranet.elevator.model.CarEntrance;
 import org.intranet.elevator.model.Floor;
-import org.intranet.elevator.model.operate.Person;
 import org.intranet.elevator.model.operate.controller.Controller;
 import org.intranet.elevator.model.operate.controller.Direction;
 import org.intranet.sim.event.Event;
@@ -143,6 +141,17 @@ public class GOALController implements Controller {
 		return this.nextDirOfCar.get(car.getName());
 	}
 
+	/**
+	 * The agents control the one GOALController that the environment knows, so
+	 * this can not make a new one.
+	 *
+	 * @return this controller.
+	 */
+	@Override
+	public Controller duplicate() {
+		return this;
+	}
+
 	/**
 	 * simple toString, used for creation of the menu item
 	 */
@@ -290,14 +299,8 @@ public class GOALController implements Controller {
 			percepts.add(new Percept("capacity", new Numeral(car.getCapacity())));
 		}
 
-		// count people now in elevator. Annoying but we can't just get the list
-		Integer people = 0;
-		final Iterator<Person> peopleiterator = car.getPeople();
-		while (peopleiterator.hasNext()) {
-			people++;
-			peopleiterator.next();
-		}
-		final Numeral numPeople = new Numeral(people);
+		// count people now in elevator.
+		final Numeral numPeople = new Numeral(car.getOccupantCount());
 		// update needed?
 		final Numeral oldNumPeople = this.lastNumPeople.get(entity);
 		if (oldNumPeople != null) {
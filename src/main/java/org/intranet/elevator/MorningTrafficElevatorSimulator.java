@@ -7,13 +7,12 @@ package org.intranet.elevator;
 import java.util.List;
 import java.util.Random;
 
-import org.intranet.elevator.model.Floor;
 import org.intranet.elevator.model.operate.Building;
-import org.intranet.elevator.model.operate.Person;
 import org.intranet.elevator.model.operate.controller.Controller;
+import org.intranet.elevator.traffic.ArrivalScheduler;
+import org.intranet.elevator.traffic.DrawnArrivals;
 import org.intranet.sim.Model;
 import org.intranet.sim.Simulator;
-import org.intranet.sim.event.Event;
 import org.intranet.ui.ChoiceParameter;
 import org.intranet.ui.FloatParameter;
 import org.intranet.ui.IntegerParameter;
@@ -82,31 +81,22 @@ public class MorningTrafficElevatorSimulator extends Simulator {
 		Simulator.simulatorprefs.put(Simulator.Keys.CONTROLLER.toString(), this.controller.toString());
 
 		this.building = new Building(getEventQueue(), numFloors, numCars, this.controller);
-		// starting floor is the ground floor
-		final Floor startingFloor = this.building.getFloor(0);
-
 		final Random rand = new Random(seed);
 
+		// starting floor is the ground floor
+		final DrawnArrivals arrivals = new DrawnArrivals(this.building, (numFloors - 1) * numRiders);
 		for (int i = 1; i < numFloors; i++) {
-			final Floor destFloor = this.building.getFloor(i);
 			for (int j = 0; j < numRiders; j++) {
-				final Person person = this.building.createPerson(startingFloor);
 				// time to insert
 				// Convert a gaussian[-1, 1] to a gaussian[0, 1]
 				final double gaussian = (getGaussian(rand, stdDeviation) + 1) / 2;
 				// Apply gaussian value to the duration (in hours)
 				// and convert to milliseconds
 				final long insertTime = (long) (gaussian * durationInMs);
-				// insertion event for destination at time
-				final Event event = new Event(insertTime) {
-					@Override
-					public void perform() {
-						person.setDestination(destFloor);
-					}
-				};
-				getEventQueue().addEvent(event);
+				arrivals.add(insertTime, 0, i);
 			}
 		}
+		ArrivalScheduler.start(this.building, getEventQueue(), arrivals);
 	}
 
 	@Override
@@ -121,7 +111,7 @@ public class MorningTrafficElevatorSimulator extends Simulator {
 
 	@Override
 	public Simulator duplicate() {
-		return new MorningTrafficElevatorSimulator(this.the_controllers);
+		return new MorningTrafficElevatorSimulator(duplicateControllers(this.the_controllers));
 	}
 
 	private static double getGaussian(final Random rand, final int stddev) {
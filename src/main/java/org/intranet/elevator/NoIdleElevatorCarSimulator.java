@@ -97,7 +97,7 @@ public class NoIdleElevatorCarSimulator extends Simulator {
 
 	@Override
 	public Simulator duplicate() {
-		return new NoIdleElevatorCarSimulator(this.the_controllers);
+		return new NoIdleElevatorCarSimulator(duplicateControllers(this.the_controllers));
 	}
 
 	@Override
@@ -0,0 +1,127 @@
+package org.intranet.elevator;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import org.intranet.elevator.model.operate.Building;
+import org.intranet.elevator.model.operate.controller.Controller;
+import org.intranet.elevator.traffic.ArrivalScheduler;
+import org.intranet.elevator.traffic.PoissonArrivals;
+import org.intranet.elevator.traffic.TrafficProfile;
+import org.intranet.sim.Model;
+import org.intranet.sim.Simulator;
+import org.intranet.ui.ChoiceParameter;
+import org.intranet.ui.IntegerParameter;
+import org.intranet.ui.LongParameter;
+import org.intranet.ui.StringParameter;
+
+/**
+ * Riders arrive as a Poisson process with rates that change during the day,
+ * read from a {@link TrafficProfile} file. The arrivals are drawn one at a time
+ * while the simulation runs. A name that is not a file names a sample that
+ * comes with the simulator, like the default "traffic-profile.txt" for 10
+ * floors.
+ */
+public class ProfileElevatorSimulator extends Simulator {
+	private final IntegerParameter floorsParameter;
+	private final IntegerParameter carsParameter;
+	private final IntegerParameter capacityParameter;
+	private final StringParameter profileParameter;
+	private final LongParameter seedParameter;
+	private final ChoiceParameter controllerParameter;
+	/**
+	 * Currently selected controller. set only after initializeModel() was done.
+	 */
+	private Controller controller = null;
+	private Building building;
+	private final List<Controller> the_controllers; // all available controllers
+
+	public ProfileElevatorSimulator(final List<Controller> controllers) {
+		super();
+		this.the_controllers = controllers;
+		this.floorsParameter = Simulator.Keys.FLOORS.getDefaultIntegerParameter();
+		this.parameters.add(this.floorsParameter);
+		this.carsParameter = Simulator.Keys.CARS.getDefaultIntegerParameter();
+		this.parameters.add(this.carsParameter);
+		this.capacityParameter = Simulator.Keys.CAPACITY.getDefaultIntegerParameter();
+		this.parameters.add(this.capacityParameter);
+		this.profileParameter = Simulator.Keys.PROFILE.getDefaultStringParameter();
+		this.parameters.add(this.profileParameter);
+		this.seedParameter = Simulator.Keys.RANDOMSEED.getDefaultLongParameter();
+		this.parameters.add(this.seedParameter);
+
+		this.controllerParameter = new ChoiceParameter(Simulator.Keys.CONTROLLER, this.the_controllers,
+				preferredController(this.the_controllers), Controller.class);
+		this.parameters.add(this.controllerParameter);
+	}
+
+	@Override
+	public void initializeModel() {
+		final int numFloors = this.floorsParameter.getIntegerValue();
+		final int numCars = this.carsParameter.getIntegerValue();
+		final int carCapacity = this.capacityParameter.getIntegerValue();
+		final String profileFile = this.profileParameter.getStringValue();
+		final long seed = this.seedParameter.getLongValue();
+		this.controller = (Controller) this.controllerParameter.getChoiceValue();
+
+		// copy the latest settings into the global simulatorsettings.
+		// that way we can recall them the next run (if not overridden by MAS)
+		Simulator.simulatorprefs.putInt(Simulator.Keys.FLOORS.toString(), numFloors);
+		Simulator.simulatorprefs.putInt(Simulator.Keys.CARS.toString(), numCars);
+		Simulator.simulatorprefs.putInt(Simulator.Keys.CAPACITY.toString(), carCapacity);
+		Simulator.simulatorprefs.put(Simulator.Keys.PROFILE.toString(), profileFile);
+		Simulator.simulatorprefs.putLong(Simulator.Keys.RANDOMSEED.toString(), seed);
+		Simulator.simulatorprefs.put(Simulator.Keys.CONTROLLER.toString(), this.controller.toString());
+
+		final TrafficProfile profile;
+		try {
+			profile = readProfile(profileFile);
+		} catch (final IOException e) {
+			throw new IllegalArgumentException("Can't read traffic profile " + profileFile, e);
+		}
+
+		this.building = new Building(getEventQueue(), numFloors, numCars, carCapacity, this.controller);
+		// a day has far more trips than a floor has room for people
+		ArrivalScheduler.start(this.building, getEventQueue(),
+				new PoissonArrivals(this.building, profile, new Random(seed)), true);
+	}
+
+	private static TrafficProfile readProfile(final String name) throws IOException {
+		final File file = new File(name);
+		if (file.exists()) {
+			return TrafficProfile.read(file);
+		}
+		try (InputStream sample = TrafficProfile.class.getResourceAsStream(name)) {
+			if (sample == null) {
+				throw new FileNotFoundException("No file or sample " + name);
+			}
+			return TrafficProfile.read(new InputStreamReader(sample, StandardCharsets.UTF_8));
+		}
+	}
+
+	@Override
+	public final Model getModel() {
+		return this.building;
+	}
+
+	@Override
+	public String getDescription() {
+		return "Traffic Profile Rider Insertion";
+	}
+
+	@Override
+	public Simulator duplicate() {
+		return new ProfileElevatorSimulator(duplicateControllers(this.the_controllers));
+	}
+
+	@Override
+	public Controller getCurrentController() {
+		return this.controller;
+	}
+}
@@ -7,13 +7,12 @@ package org.intranet.elevator;
 import java.util.List;
 import java.util.Random;
 
-import org.intranet.elevator.model.Floor;
 import org.intranet.elevator.model.operate.Building;
-import org.intranet.elevator.model.operate.Person;
 import org.intranet.elevator.model.operate.controller.Controller;
+import org.intranet.elevator.traffic.ArrivalScheduler;
+import org.intranet.elevator.traffic.DrawnArrivals;
 import org.intranet.sim.Model;
 import org.intranet.sim.Simulator;
-import org.intranet.sim.event.Event;
 import org.intranet.ui.ChoiceParameter;
 import org.intranet.ui.IntegerParameter;
 import org.intranet.ui.LongParameter;
@@ -83,27 +82,20 @@ public class RandomElevatorSimulator extends Simulator {
 
 		final Random rand = new Random(seed);
 
+		final DrawnArrivals arrivals = new DrawnArrivals(this.building, numRiders);
 		for (int i = 0; i < numRiders; i++) {
 			// starting floor
-			final Floor startingFloor = this.building.getFloor(rand.nextInt(numFloors));
-			final Person person = this.building.createPerson(startingFloor);
+			final int startingFloor = rand.nextInt(numFloors);
 			// destination floor
-			Floor floor = null;
+			int destFloor;
 			do {
-				floor = this.building.getFloor(rand.nextInt(numFloors));
-			} while (floor == startingFloor);
-			final Floor destFloor = floor;
+				destFloor = rand.nextInt(numFloors);
+			} while (destFloor == startingFloor);
 			// time to insert
 			final long insertTime = rand.nextInt((int) duration);
-			// insertion event for destination at time
-			final Event event = new Event(insertTime) {
-				@Override
-				public void perform() {
-					person.setDestination(destFloor);
-				}
-			};
-			getEventQueue().addEvent(event);
+			arrivals.add(insertTime, startingFloor, destFloor);
 		}
+		ArrivalScheduler.start(this.building, getEventQueue(), arrivals);
 	}
 
 	@Override
@@ -118,7 +110,7 @@ public class RandomElevatorSimulator extends Simulator {
 
 	@Override
 	public Simulator duplicate() {
-		return new RandomElevatorSimulator(this.the_controllers);
+		return new RandomElevatorSimulator(duplicateControllers(this.the_controllers));
 	}
 
 	@Override
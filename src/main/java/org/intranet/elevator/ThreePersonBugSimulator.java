@@ -79,7 +79,7 @@ public class ThreePersonBugSimulator extends Simulator {
 
 	@Override
 	public Simulator duplicate() {
-		return new ThreePersonBugSimulator(this.the_controllers);
+		return new ThreePersonBugSimulator(duplicateControllers(this.the_controllers));
 	}
 
 	@Override
@@ -98,7 +98,7 @@ public class ThreePersonElevatorSimulator extends Simulator {
 
 	@Override
 	public Simulator duplicate() {
-		return new ThreePersonElevatorSimulator(this.the_controllers);
+		return new ThreePersonElevatorSimulator(duplicateControllers(this.the_controllers));
 	}
 
 	@Override
@@ -100,7 +100,7 @@ public class ThreePersonTwoElevatorSimulator extends Simulator {
 
 	@Override
 	public Simulator duplicate() {
-		return new ThreePersonTwoElevatorSimulator(this.the_controllers);
+		return new ThreePersonTwoElevatorSimulator(duplicateControllers(this.the_controllers));
 	}
 
 	@Override
@@ -0,0 +1,123 @@
+package org.intranet.elevator;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import org.intranet.elevator.model.operate.Building;
+import org.intranet.elevator.model.operate.controller.Controller;
+import org.intranet.elevator.traffic.ArrivalScheduler;
+import org.intranet.elevator.traffic.TraceArrivals;
+import org.intranet.sim.Model;
+import org.intranet.sim.Simulator;
+import org.intranet.ui.ChoiceParameter;
+import org.intranet.ui.IntegerParameter;
+import org.intranet.ui.StringParameter;
+
+/**
+ * Replays recorded trips, see {@link TraceArrivals} for the file formats. The
+ * trips are read one at a time while the simulation runs. A name that is not a
+ * file names a sample that comes with the simulator, like the default
+ * "trips.csv" for 10 floors.
+ */
+public class TraceElevatorSimulator extends Simulator {
+	private final IntegerParameter floorsParameter;
+	private final IntegerParameter carsParameter;
+	private final IntegerParameter capacityParameter;
+	private final StringParameter traceParameter;
+	private final ChoiceParameter controllerParameter;
+	/**
+	 * Currently selected controller. set only after initializeModel() was done.
+	 */
+	private Controller controller = null;
+	private Building building;
+	private final List<Controller> the_controllers; // all available controllers
+
+	public TraceElevatorSimulator(final List<Controller> controllers) {
+		super();
+		this.the_controllers = controllers;
+		this.floorsParameter = Simulator.Keys.FLOORS.getDefaultIntegerParameter();
+		this.parameters.add(this.floorsParameter);
+		this.carsParameter = Simulator.Keys.CARS.getDefaultIntegerParameter();
+		this.parameters.add(this.carsParameter);
+		this.capacityParameter = Simulator.Keys.CAPACITY.getDefaultIntegerParameter();
+		this.parameters.add(this.capacityParameter);
+		this.traceParameter = Simulator.Keys.TRACE.getDefaultStringParameter();
+		this.parameters.add(this.traceParameter);
+
+		this.controllerParameter = new ChoiceParameter(Simulator.Keys.CONTROLLER, this.the_controllers,
+				preferredController(this.the_controllers), Controller.class);
+		this.parameters.add(this.controllerParameter);
+	}
+
+	@Override
+	public void initializeModel() {
+		final int numFloors = this.floorsParameter.getIntegerValue();
+		final int numCars = this.carsParameter.getIntegerValue();
+		final int carCapacity = this.capacityParameter.getIntegerValue();
+		final String traceFile = this.traceParameter.getStringValue();
+		this.controller = (Controller) this.controllerParameter.getChoiceValue();
+
+		// copy the latest settings into the global simulatorsettings.
+		// that way we can recall them the next run (if not overridden by MAS)
+		Simulator.simulatorprefs.putInt(Simulator.Keys.FLOORS.toString(), numFloors);
+		Simulator.simulatorprefs.putInt(Simulator.Keys.CARS.toString(), numCars);
+		Simulator.simulatorprefs.putInt(Simulator.Keys.CAPACITY.toString(), carCapacity);
+		Simulator.simulatorprefs.put(Simulator.Keys.TRACE.toString(), traceFile);
+		Simulator.simulatorprefs.put(Simulator.Keys.CONTROLLER.toString(), this.controller.toString());
+
+		this.building = new Building(getEventQueue(), numFloors, numCars, carCapacity, this.controller);
+		final TraceArrivals trips;
+		try {
+			trips = new TraceArrivals(this.building, getTraceFile(traceFile));
+		} catch (final IOException e) {
+			throw new IllegalArgumentException("Can't read trip trace " + traceFile, e);
+		}
+		// a trace has far more trips than a floor has room for people
+		ArrivalScheduler.start(this.building, getEventQueue(), trips, true);
+	}
+
+	/**
+	 * @return the file, or a copy of the sample of that name: a trace is memory
+	 *         mapped, which needs a file.
+	 */
+	private static File getTraceFile(final String name) throws IOException {
+		final File file = new File(name);
+		if (file.exists()) {
+			return file;
+		}
+		try (InputStream sample = TraceArrivals.class.getResourceAsStream(name)) {
+			if (sample == null) {
+				throw new FileNotFoundException("No file or sample " + name);
+			}
+			final File copy = File.createTempFile("trace", "-" + file.getName());
+			copy.deleteOnExit();
+			Files.copy(sample, copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			return copy;
+		}
+	}
+
+	@Override
+	public final Model getModel() {
+		return this.building;
+	}
+
+	@Override
+	public String getDescription() {
+		return "Trip Trace Replay";
+	}
+
+	@Override
+	public Simulator duplicate() {
+		return new TraceElevatorSimulator(duplicateControllers(this.the_controllers));
+	}
+
+	@Override
+	public Controller getCurrentController() {
+		return this.controller;
+	}
+}
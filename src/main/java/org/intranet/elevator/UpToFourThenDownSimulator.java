@@ -82,7 +82,7 @@ public class UpToFourThenDownSimulator extends Simulator {
 
 	@Override
 	public Simulator duplicate() {
-		return new UpToFourThenDownSimulator(this.the_controllers);
+		return new UpToFourThenDownSimulator(duplicateControllers(this.the_controllers));
 	}
 
 	@Override
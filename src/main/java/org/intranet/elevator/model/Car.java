@@ -5,9 +5,11 @@
 package org.intranet.elevator.model;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.intranet.sim.ListenerList;
 import org.intranet.sim.clock.RealTimeClock;
 import org.intranet.sim.event.EventQueue;
 
@@ -65,18 +67,47 @@ import org.intranet.sim.event.EventQueue;
  */
 public final class Car extends MovableLocation {
 	private final String name;
+	private final int index;
 	private Floor location;
 	private Floor destination;
 	private final FloorRequestPanel panel = new FloorRequestPanel();
-	private final List<Listener> listeners = new LinkedList<>();
+	private final ListenerList<Listener> listeners = new ListenerList<>(Listener.class);
+	/**
+	 * The listeners for the next stop at each floor, usually the passengers that
+	 * get off there, in the order they were added.
+	 */
+	private final Map<Floor, List<Listener>> manifest = new HashMap<>();
 
 	public interface Listener {
 		void docked();
 	}
 
+	/**
+	 * Create a car without index, see {@link #getIndex()}.
+	 */
 	public Car(final EventQueue eQ, final String name, final float height, final int capacity) {
+		this(eQ, name, -1, height, capacity);
+	}
+
+	/**
+	 * @param eQ       the event queue
+	 * @param name     the name of the car
+	 * @param index    dense ordinal of this car in its building, from 0
+	 * @param height   the start height
+	 * @param capacity the number of people that fit in
+	 */
+	public Car(final EventQueue eQ, final String name, final int index, final float height, final int capacity) {
 		super(eQ, height, capacity);
 		this.name = name;
+		this.index = index;
+	}
+
+	/**
+	 * @return dense ordinal of this car in its building, from 0, or -1 if the car
+	 *         has none.
+	 */
+	public int getIndex() {
+		return this.index;
 	}
 
 	/**
@@ -127,6 +158,23 @@ public final class Car extends MovableLocation {
 		this.listeners.remove(listener);
 	}
 
+	/**
+	 * Notify the listener once, the next time the car docks at the given floor.
+	 * It is called after the listeners of {@link #addListener(Listener)}, and
+	 * only the listeners for the floor where the car docks are called.
+	 *
+	 * @param floor    the floor
+	 * @param listener the listener
+	 */
+	public void addDestinationListener(final Floor floor, final Listener listener) {
+		List<Listener> floorListeners = this.manifest.get(floor);
+		if (floorListeners == null) {
+			floorListeners = new ArrayList<>();
+			this.manifest.put(floor, floorListeners);
+		}
+		floorListeners.add(listener);
+	}
+
 	public String getName() {
 		return this.name;
 	}
@@ -159,11 +207,16 @@ public final class Car extends MovableLocation {
 	}
 
 	private void fireDockedEvent() {
-		final List<Listener> listenersCopy = new ArrayList<>(this.listeners);
-		for (final Listener listener : listenersCopy) {
-			final Listener l = listener;
+		for (final Listener l : this.listeners.getListeners()) {
 			l.docked();
 		}
+		// removed first, so listeners added now are for the next stop here
+		final List<Listener> floorListeners = this.manifest.remove(this.location);
+		if (floorListeners != null) {
+			for (final Listener l : floorListeners) {
+				l.docked();
+			}
+		}
 	}
 
 	@Override
@@ -17,6 +17,13 @@ public final class CarEntrance {
 		void arrivedUp(CarEntrance entrance);
 
 		void arrivedDown(CarEntrance entrance);
+
+		/**
+		 * Someone finished going through the open door, so the next one may go.
+		 *
+		 * @param entrance the entrance
+		 */
+		void entranceUnobstructed(CarEntrance entrance);
 	}
 
 	public interface DoorWaitListener {
@@ -68,6 +75,9 @@ public final class CarEntrance {
 
 			@Override
 			public void sensorUnobstructed() {
+				if (CarEntrance.this.door.getState() != Door.State.CLOSED) {
+					CarEntrance.this.entranceListener.entranceUnobstructed(CarEntrance.this);
+				}
 			}
 		});
 	}
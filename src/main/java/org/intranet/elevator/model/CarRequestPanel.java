@@ -4,9 +4,7 @@
 */
 package org.intranet.elevator.model;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
+import org.intranet.sim.ListenerList;
 
 /**
  * @author Neil McKellar and Chris Dailey
@@ -14,8 +12,8 @@ import java.util.List;
 public final class CarRequestPanel {
 	private boolean up;
 	private boolean down;
-	private final List<ButtonListener> buttonListeners = new LinkedList<>();
-	private final List<ArrivalListener> arrivalListeners = new LinkedList<>();
+	private final ListenerList<ButtonListener> buttonListeners = new ListenerList<>(ButtonListener.class);
+	private final ListenerList<ArrivalListener> arrivalListeners = new ListenerList<>(ArrivalListener.class);
 
 	CarRequestPanel() {
 		super();
@@ -34,9 +32,7 @@ public final class CarRequestPanel {
 			return;
 		}
 		this.up = true;
-		final List<ButtonListener> buttonListeners = new ArrayList<>(this.buttonListeners);
-		for (final ButtonListener buttonListener : buttonListeners) {
-			final ButtonListener l = buttonListener;
+		for (final ButtonListener l : this.buttonListeners.getListeners()) {
 			l.pressedUp();
 		}
 	}
@@ -46,27 +42,32 @@ public final class CarRequestPanel {
 			return;
 		}
 		this.down = true;
-		final List<ButtonListener> buttonListeners = new ArrayList<>(this.buttonListeners);
-		for (final ButtonListener buttonListener : buttonListeners) {
-			final ButtonListener l = buttonListener;
+		for (final ButtonListener l : this.buttonListeners.getListeners()) {
 			l.pressedDown();
 		}
 	}
 
+	/**
+	 * Tell the listeners where a rider that waits at this panel goes.
+	 *
+	 * @param destination the floor the rider goes to
+	 */
+	public void registerDestination(final Floor destination) {
+		for (final ButtonListener l : this.buttonListeners.getListeners()) {
+			l.registeredDestination(destination);
+		}
+	}
+
 	void arrivedUp(final CarEntrance entrance) {
 		this.up = false;
-		final List<ArrivalListener> arrivalListeners = new ArrayList<>(this.arrivalListeners);
-		for (final ArrivalListener arrivalListener : arrivalListeners) {
-			final ArrivalListener l = arrivalListener;
+		for (final ArrivalListener l : this.arrivalListeners.getListeners()) {
 			l.arrivedUp(entrance);
 		}
 	}
 
 	void arrivedDown(final CarEntrance entrance) {
 		this.down = false;
-		final List<ArrivalListener> arrivalListeners = new ArrayList<>(this.arrivalListeners);
-		for (final ArrivalListener arrivalListener : arrivalListeners) {
-			final ArrivalListener l = arrivalListener;
+		for (final ArrivalListener l : this.arrivalListeners.getListeners()) {
 			l.arrivedDown(entrance);
 		}
 	}
@@ -91,6 +92,15 @@ public final class CarRequestPanel {
 		void pressedUp();
 
 		void pressedDown();
+
+		/**
+		 * A rider registered the floor they go to, see
+		 * {@link CarRequestPanel#registerDestination(Floor)}.
+		 *
+		 * @param destination the floor the rider goes to
+		 */
+		default void registeredDestination(final Floor destination) {
+		}
 	}
 
 	public interface ArrivalListener {
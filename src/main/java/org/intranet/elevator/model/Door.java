@@ -4,12 +4,8 @@
 */
 package org.intranet.elevator.model;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
-
+import org.intranet.sim.ListenerList;
 import org.intranet.sim.ModelElement;
-import org.intranet.sim.event.Event;
 import org.intranet.sim.event.EventQueue;
 import org.intranet.sim.event.TrackingUpdateEvent;
 
@@ -74,9 +70,9 @@ public class Door extends ModelElement {
 	private int percentClosed = 100;
 	private final Location from;
 	private final Location to;
-	private final List<Listener> listeners = new LinkedList<>();
-	private final List<Listener> priorityListeners = new LinkedList<>();
-	private Event event;
+	private final ListenerList<Listener> listeners = new ListenerList<>(Listener.class);
+	private final ListenerList<Listener> priorityListeners = new ListenerList<>(Listener.class);
+	private TrackingUpdateEvent event;
 	private static final long CLOSE_TIME = 2000;
 	private static final long CLOSE_WAIT_TIME = 3000;
 
@@ -162,6 +158,10 @@ public class Door extends ModelElement {
 	 * @return An int between 0 and 100.
 	 */
 	public int getPercentClosed() {
+		final TrackingUpdateEvent motion = this.event;
+		if (motion != null) {
+			return (int) motion.currentValue(this.eventQueue.getCurrentTime());
+		}
 		return this.percentClosed;
 	}
 
@@ -174,7 +174,7 @@ public class Door extends ModelElement {
 	}
 
 	public boolean isOpen() {
-		return (this.percentClosed == 0);
+		return (getPercentClosed() == 0);
 	}
 
 	public void open() {
@@ -182,6 +182,8 @@ public class Door extends ModelElement {
 			throw new IllegalStateException();
 		}
 		if (this.state == State.CLOSING) {
+			// reopen from where the door is now
+			this.percentClosed = getPercentClosed();
 			this.eventQueue.removeEvent(this.event);
 			this.event = null;
 		}
@@ -210,10 +212,12 @@ public class Door extends ModelElement {
 		setState(State.CLOSED);
 		this.percentClosed = 100;
 		// Notification occurs with the high priority listeners first.
-		final List<Listener> listenersCopy = new ArrayList<>(this.priorityListeners);
-		listenersCopy.addAll(this.listeners);
-		for (final Listener listener : listenersCopy) {
-			final Listener l = listener;
+		final Listener[] priority = this.priorityListeners.getListeners();
+		final Listener[] normal = this.listeners.getListeners();
+		for (final Listener l : priority) {
+			l.doorClosed();
+		}
+		for (final Listener l : normal) {
 			l.doorClosed();
 		}
 	}
@@ -221,10 +225,12 @@ public class Door extends ModelElement {
 	private void opened() {
 		setState(State.OPENED);
 		this.percentClosed = 0;
-		final List<Listener> listenersCopy = new ArrayList<>(this.priorityListeners);
-		listenersCopy.addAll(this.listeners);
-		for (final Listener listener : listenersCopy) {
-			final Listener l = listener;
+		final Listener[] priority = this.priorityListeners.getListeners();
+		final Listener[] normal = this.listeners.getListeners();
+		for (final Listener l : priority) {
+			l.doorOpened();
+		}
+		for (final Listener l : normal) {
 			l.doorOpened();
 		}
 		if (this.event != null) {
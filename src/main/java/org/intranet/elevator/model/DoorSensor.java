@@ -4,10 +4,7 @@
  */
 package org.intranet.elevator.model;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
-
+import org.intranet.sim.ListenerList;
 import org.intranet.sim.ModelElement;
 import org.intranet.sim.event.Event;
 import org.intranet.sim.event.EventQueue;
@@ -57,7 +54,7 @@ import org.intranet.sim.event.EventQueue;
 public class DoorSensor extends ModelElement {
 	private State state = State.CLEAR;
 	private Event clearEvent = null;
-	private final List<Listener> listeners = new LinkedList<>();
+	private final ListenerList<Listener> listeners = new ListenerList<>(Listener.class);
 
 	private final class ClearEvent extends Event {
 		private ClearEvent(final long newTime) {
@@ -126,8 +123,7 @@ public class DoorSensor extends ModelElement {
 			this.clearEvent = null;
 		}
 		this.state = State.OBSTRUCTED;
-		for (final Listener listener : this.listeners) {
-			final Listener l = listener;
+		for (final Listener l : this.listeners.getListeners()) {
 			l.sensorObstructed();
 		}
 	}
@@ -140,16 +136,14 @@ public class DoorSensor extends ModelElement {
 		this.clearEvent = new ClearEvent(this.eventQueue.getCurrentTime() + 3000);
 		this.eventQueue.addEvent(this.clearEvent);
 
-		for (final Listener listener : new ArrayList<>(this.listeners)) {
-			final Listener l = listener;
+		for (final Listener l : this.listeners.getListeners()) {
 			l.sensorUnobstructed();
 		}
 	}
 
 	private void clear() {
 		this.state = State.CLEAR;
-		for (final Listener listener : this.listeners) {
-			final Listener l = listener;
+		for (final Listener l : this.listeners.getListeners()) {
 			l.sensorCleared();
 		}
 	}
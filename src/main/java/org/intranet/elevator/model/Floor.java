@@ -4,8 +4,11 @@
 */
 package org.intranet.elevator.model;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.intranet.sim.event.EventQueue;
@@ -15,27 +18,104 @@ import org.intranet.sim.event.EventQueue;
  */
 public final class Floor extends Location {
 	private final int number;
+	private final int index;
 	// distance from the ground
 	private final float ceiling; // relative to the floor's height
 	private final CarRequestPanel callPanel = new CarRequestPanel();
-	private final List<CarEntrance> carEntrances = new LinkedList<>();
+	private final List<CarEntrance> carEntrances = new ArrayList<>();
+	/**
+	 * The entrances by {@link Car#getIndex()}, so a controller finds the entrance
+	 * of a car without scanning all of them.
+	 */
+	private CarEntrance[] entrancesByCar = new CarEntrance[0];
+	/**
+	 * The riders waiting to go up and down, in the order they came.
+	 */
+	private final Deque<Waiting> waitingUp = new ArrayDeque<>();
+	private final Deque<Waiting> waitingDown = new ArrayDeque<>();
+	/**
+	 * The number of riders in {@link #waitingUp} and {@link #waitingDown} that
+	 * were given a car, see {@link #assignCar(Floor, boolean, Car)}.
+	 */
+	private int assignedUp;
+	private int assignedDown;
+
+	/**
+	 * Someone waiting on this floor for a car, see
+	 * {@link Floor#waitForCar(WaitingRider, boolean)}.
+	 */
+	public interface WaitingRider {
+		/**
+		 * Start entering the car through the given entrance. The rider must
+		 * obstruct the door sensor right away, so the next rider waits for their
+		 * turn.
+		 *
+		 * @param entrance the entrance to take
+		 */
+		void enterCar(CarEntrance entrance);
+	}
+
+	/**
+	 * A rider in the queue, with where they go and the car they wait for.
+	 */
+	private static final class Waiting {
+		private final WaitingRider rider;
+		private final Floor destination;
+		/**
+		 * The car the rider was given, or null for the first car going their
+		 * way.
+		 */
+		private Car car;
+
+		Waiting(final WaitingRider rider, final Floor destination) {
+			this.rider = rider;
+			this.destination = destination;
+		}
+	}
 
 	// TODO: Make a sequence diagram with all the passing off of notification
 	private final CarEntrance.CarEntranceListener carEntranceListener = new CarEntrance.CarEntranceListener() {
 		@Override
 		public void arrivedUp(final CarEntrance entrance) {
 			Floor.this.callPanel.arrivedUp(entrance);
+			boardWaitingRiders(true);
 		}
 
 		@Override
 		public void arrivedDown(final CarEntrance entrance) {
 			Floor.this.callPanel.arrivedDown(entrance);
+			boardWaitingRiders(false);
+		}
+
+		@Override
+		public void entranceUnobstructed(final CarEntrance entrance) {
+			if (entrance.isUp()) {
+				boardWaitingRiders(true);
+			}
+			if (entrance.isDown()) {
+				boardWaitingRiders(false);
+			}
 		}
 	};
 
+	/**
+	 * Create a floor with index number - 1.
+	 */
 	public Floor(final EventQueue eQ, final int number, final float height, final float ceiling) {
+		this(eQ, number, number - 1, height, ceiling);
+	}
+
+	/**
+	 * @param eQ      the event queue
+	 * @param number  the floor number shown to people, usually from 1
+	 * @param index   dense ordinal of this floor in its building, from 0
+	 * @param height  distance from the ground
+	 * @param ceiling height of the ceiling relative to the floor
+	 */
+	public Floor(final EventQueue eQ, final int number, final int index, final float height, final float ceiling) {
 		super(eQ, height, 500);
 		this.number = number;
+		this.index = index;
 		this.ceiling = ceiling;
 	}
 
@@ -43,6 +123,13 @@ public final class Floor extends Location {
 		return this.number;
 	}
 
+	/**
+	 * @return dense ordinal of this floor in its building, from 0.
+	 */
+	public int getIndex() {
+		return this.index;
+	}
+
 	public float getCeiling() {
 		return this.ceiling;
 	}
@@ -56,7 +143,17 @@ public final class Floor extends Location {
 	}
 
 	public void createCarEntrance(final Location destination) {
-		this.carEntrances.add(new CarEntrance(this.eventQueue, this, destination, this.carEntranceListener));
+		final CarEntrance entrance = new CarEntrance(this.eventQueue, this, destination, this.carEntranceListener);
+		this.carEntrances.add(entrance);
+		final int carIndex = destination instanceof Car ? ((Car) destination).getIndex() : -1;
+		if (carIndex >= 0) {
+			if (carIndex >= this.entrancesByCar.length) {
+				this.entrancesByCar = Arrays.copyOf(this.entrancesByCar, carIndex + 1);
+			}
+			if (this.entrancesByCar[carIndex] == null) {
+				this.entrancesByCar[carIndex] = entrance;
+			}
+		}
 	}
 
 	public Iterator<CarEntrance> getCarEntrances() {
@@ -78,7 +175,223 @@ public final class Floor extends Location {
 		return null;
 	}
 
+	/**
+	 * Wait on this floor for a car going in the given direction. If a car can
+	 * take the rider right away, they enter it now. Otherwise they are queued
+	 * behind the others going that way, and enter the first car that can take
+	 * them after it arrives or after the one in front of them entered. The car is
+	 * called if no car going that way is busy at this floor.
+	 *
+	 * @param rider the rider
+	 * @param up    true if the rider wants to go up, false if down
+	 */
+	public void waitForCar(final WaitingRider rider, final boolean up) {
+		waitForCar(rider, up, null);
+	}
+
+	/**
+	 * Wait on this floor for a car going in the given direction, see
+	 * {@link #waitForCar(WaitingRider, boolean)}. A rider that has to wait
+	 * registers the destination on the call panel before the car is called. The
+	 * controller may then give them a car, see
+	 * {@link #assignCar(Floor, boolean, Car)}.
+	 *
+	 * @param rider       the rider
+	 * @param up          true if the rider wants to go up, false if down
+	 * @param destination the floor the rider goes to, or null if not known
+	 */
+	public void waitForCar(final WaitingRider rider, final boolean up, final Floor destination) {
+		final CarEntrance entrance = getBoardableCarEntrance(up);
+		if (entrance != null) {
+			rider.enterCar(entrance);
+			return;
+		}
+		(up ? this.waitingUp : this.waitingDown).add(new Waiting(rider, destination));
+		if (destination != null) {
+			this.callPanel.registerDestination(destination);
+		}
+		callCar(up);
+	}
+
+	/**
+	 * @param up true for the riders that want to go up, false for down
+	 * @return the number of riders waiting for a car in the given direction.
+	 */
+	public int getWaitingRiderCount(final boolean up) {
+		return (up ? this.waitingUp : this.waitingDown).size();
+	}
+
+	/**
+	 * @param up true for the riders that want to go up, false for down
+	 * @return the number of riders waiting for a car in the given direction that
+	 *         were not given a car.
+	 */
+	public int getUnassignedRiderCount(final boolean up) {
+		return getWaitingRiderCount(up) - (up ? this.assignedUp : this.assignedDown);
+	}
+
+	/**
+	 * Give the riders that wait here to go to the destination a car. They only
+	 * enter that car, unless it comes here going their way too full to take
+	 * them. Riders that came without a destination, or that were given a car
+	 * already, keep waiting as they were.
+	 *
+	 * @param destination the floor the riders go to
+	 * @param up          true if they go up, false if down
+	 * @param car         the car that comes for them
+	 * @return the number of riders given the car.
+	 */
+	public int assignCar(final Floor destination, final boolean up, final Car car) {
+		int count = 0;
+		for (final Waiting waiting : up ? this.waitingUp : this.waitingDown) {
+			if (waiting.car == null && waiting.destination == destination) {
+				waiting.car = car;
+				count++;
+			}
+		}
+		if (up) {
+			this.assignedUp += count;
+		} else {
+			this.assignedDown += count;
+		}
+		return count;
+	}
+
+	/**
+	 * The riders given a car that is here going their way, but full, no longer
+	 * wait for it. They enter the next car going their way.
+	 */
+	private void releaseRiders(final boolean up) {
+		if ((up ? this.assignedUp : this.assignedDown) == 0) {
+			return;
+		}
+		for (final CarEntrance entrance : this.carEntrances) {
+			final Car car = (Car) entrance.getDoor().getTo();
+			if (entrance.getDoor().getState() == Door.State.CLOSED || up != entrance.isUp() || !car.isAtCapacity()) {
+				continue;
+			}
+			for (final Waiting waiting : up ? this.waitingUp : this.waitingDown) {
+				if (waiting.car == car) {
+					waiting.car = null;
+					if (up) {
+						this.assignedUp--;
+					} else {
+						this.assignedDown--;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Let the riders that wait to go in the given direction enter the cars that
+	 * can take them, first come first served: the rider that waited longest
+	 * always gets the next free entrance. A rider given a car only takes the
+	 * entrance of that car, and the riders behind may go first. Each one
+	 * obstructs the door of their car, so this stops when no waiting rider can
+	 * enter. The car is called for the riders that were not given one.
+	 */
+	private void boardWaitingRiders(final boolean up) {
+		final Deque<Waiting> waiting = up ? this.waitingUp : this.waitingDown;
+		releaseRiders(up);
+		while (!waiting.isEmpty()) {
+			final CarEntrance entrance = getBoardableCarEntrance(up);
+			if (entrance == null) {
+				break;
+			}
+			if ((up ? this.assignedUp : this.assignedDown) == 0) {
+				waiting.poll().rider.enterCar(entrance);
+			} else if (!boardFirstWaiting(waiting, up, entrance)) {
+				break;
+			}
+		}
+		if (getUnassignedRiderCount(up) > 0) {
+			callCar(up);
+		}
+	}
+
+	/**
+	 * Let the first waiting rider that can enter a car do so.
+	 *
+	 * @param entrance the first entrance any rider can enter
+	 * @return true if a rider entered a car.
+	 */
+	private boolean boardFirstWaiting(final Deque<Waiting> waiting, final boolean up, final CarEntrance entrance) {
+		for (final Iterator<Waiting> i = waiting.iterator(); i.hasNext();) {
+			final Waiting next = i.next();
+			final CarEntrance nextEntrance = next.car == null ? entrance : getCarEntranceForCar(next.car);
+			if (nextEntrance != null && isBoardable(nextEntrance, up)) {
+				i.remove();
+				if (next.car != null) {
+					if (up) {
+						this.assignedUp--;
+					} else {
+						this.assignedDown--;
+					}
+				}
+				next.rider.enterCar(nextEntrance);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the first entrance a rider can enter now to go in the given
+	 *         direction, or null.
+	 */
+	private CarEntrance getBoardableCarEntrance(final boolean up) {
+		for (final CarEntrance entrance : this.carEntrances) {
+			if (isBoardable(entrance, up)) {
+				return entrance;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return true if a rider can enter the entrance now to go in the given
+	 *         direction. The door must not be closed or obstructed, the car must
+	 *         have room and nobody may wait to get out.
+	 */
+	private static boolean isBoardable(final CarEntrance entrance, final boolean up) {
+		final Door door = entrance.getDoor();
+		final Car car = (Car) door.getTo();
+		return door.getState() != Door.State.CLOSED
+				&& entrance.getDoorSensor().getState() != DoorSensor.State.OBSTRUCTED && !car.isAtCapacity()
+				&& !entrance.arePeopleWaitingToGetOut() && up == entrance.isUp();
+	}
+
+	/**
+	 * Press the call button for the given direction, unless a car going that way
+	 * is busy at this floor with people going in or out. That car may still take
+	 * the riders. A busy car going the other way does not count: it will not
+	 * take them, and the riders would not hear about another car.
+	 */
+	private void callCar(final boolean up) {
+		for (final CarEntrance entrance : this.carEntrances) {
+			if (up == entrance.isUp() && (entrance.getDoorSensor().getState() == DoorSensor.State.OBSTRUCTED
+					|| entrance.arePeopleWaitingToGetOut())) {
+				return;
+			}
+		}
+		if (up && !this.callPanel.isUp()) {
+			this.callPanel.pressUp();
+		}
+		if (!up && !this.callPanel.isDown()) {
+			this.callPanel.pressDown();
+		}
+	}
+
 	public CarEntrance getCarEntranceForCar(final Location destination) {
+		final int carIndex = destination instanceof Car ? ((Car) destination).getIndex() : -1;
+		if (carIndex >= 0 && carIndex < this.entrancesByCar.length) {
+			final CarEntrance entrance = this.entrancesByCar[carIndex];
+			if (entrance != null && entrance.getDoor().getTo() == destination) {
+				return entrance;
+			}
+		}
+		// cars without index, or from another building with the same index
 		for (final CarEntrance carEntrance2 : this.carEntrances) {
 			final CarEntrance carEntrance = carEntrance2;
 			if (carEntrance.getDoor().getTo() == destination) {
@@ -4,21 +4,102 @@
  */
 package org.intranet.elevator.model;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
+import org.intranet.sim.ListenerList;
+
 /**
+ * The buttons inside a car. Floors are identified by their position in the
+ * serviced floors, found through {@link Floor#getIndex()}, so requesting and
+ * fulfilling a floor are constant time.
+ *
  * @author Neil McKellar and Chris Dailey
  *
  */
 public class FloorRequestPanel {
-	private final List<Floor> floors = new LinkedList<>();
-	private final List<Floor> requestedFloors = new LinkedList<>();
-	private final List<Listener> listeners = new LinkedList<>();
+	private final List<Floor> floors = new ArrayList<>();
+	/**
+	 * The position in {@link #floors} by {@link Floor#getIndex()}, or -1.
+	 */
+	private int[] positionByIndex = new int[0];
+	/**
+	 * The positions of the requested floors.
+	 */
+	private final BitSet requested = new BitSet();
+	/**
+	 * The requested floors in the order of the serviced floors, made on demand.
+	 */
+	private List<Floor> requestedFloors = Collections.emptyList();
+	private boolean requestedChanged;
+	private final ListenerList<Listener> listeners = new ListenerList<>(Listener.class);
+	/**
+	 * The serviced floors sorted by height, and their heights, to find the floor
+	 * at a height with a binary search.
+	 */
+	private Floor[] floorsByHeight = new Floor[0];
+	private float[] heights = new float[0];
+	private Floor maxFloor;
+	private float maxHeight = Float.MIN_VALUE;
+	private Floor minFloor;
+	private float minHeight = Float.MAX_VALUE;
 
 	public final void addServicedFloor(final Floor floor) {
+		final int position = this.floors.size();
 		this.floors.add(floor);
+		final int index = floor.getIndex();
+		if (index >= 0) {
+			if (index >= this.positionByIndex.length) {
+				final int oldLength = this.positionByIndex.length;
+				this.positionByIndex = Arrays.copyOf(this.positionByIndex, Math.max(index + 1, 2 * oldLength));
+				Arrays.fill(this.positionByIndex, oldLength, this.positionByIndex.length, -1);
+			}
+			if (this.positionByIndex[index] == -1) {
+				this.positionByIndex[index] = position;
+			}
+		}
+
+		final int n = this.heights.length;
+		this.floorsByHeight = Arrays.copyOf(this.floorsByHeight, n + 1);
+		this.heights = Arrays.copyOf(this.heights, n + 1);
+		// insertion sort step; the first added floor wins for equal heights.
+		int i = n;
+		while (i > 0 && this.heights[i - 1] > floor.getHeight()) {
+			this.floorsByHeight[i] = this.floorsByHeight[i - 1];
+			this.heights[i] = this.heights[i - 1];
+			i--;
+		}
+		this.floorsByHeight[i] = floor;
+		this.heights[i] = floor.getHeight();
+
+		if (floor.getHeight() > this.maxHeight) {
+			this.maxHeight = floor.getHeight();
+			this.maxFloor = floor;
+		}
+		if (floor.getHeight() < this.minHeight) {
+			this.minHeight = floor.getHeight();
+			this.minFloor = floor;
+		}
+	}
+
+	/**
+	 * @return the position of the floor in the serviced floors, or -1 if it is
+	 *         not serviced.
+	 */
+	private int getPosition(final Floor floor) {
+		final int index = floor.getIndex();
+		if (index >= 0 && index < this.positionByIndex.length) {
+			final int position = this.positionByIndex[index];
+			if (position >= 0 && this.floors.get(position) == floor) {
+				return position;
+			}
+		}
+		// floors without index, or with the index of another floor
+		return this.floors.indexOf(floor);
 	}
 
 	public final Iterator<Floor> getServicedFloorsI() {
@@ -26,11 +107,20 @@ public class FloorRequestPanel {
 	}
 
 	public final Floor getFloorAt(final float height) {
-		for (final Floor f : this.floors) {
-			if (f.getHeight() == height) {
-				return f;
+		// first index with heights[index] >= height
+		int low = 0;
+		int high = this.heights.length;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (this.heights[mid] < height) {
+				low = mid + 1;
+			} else {
+				high = mid;
 			}
 		}
+		if (low < this.heights.length && this.heights[low] == height) {
+			return this.floorsByHeight[low];
+		}
 		return null;
 	}
 
@@ -38,52 +128,54 @@ public class FloorRequestPanel {
 		return this.floors;
 	}
 
+	/**
+	 * @return unmodifiable snapshot of the requested floors, in the order of the
+	 *         serviced floors.
+	 */
 	public List<Floor> getRequestedFloors() {
+		if (this.requestedChanged) {
+			final List<Floor> list = new ArrayList<>(this.requested.cardinality());
+			for (int i = this.requested.nextSetBit(0); i >= 0; i = this.requested.nextSetBit(i + 1)) {
+				list.add(this.floors.get(i));
+			}
+			this.requestedFloors = Collections.unmodifiableList(list);
+			this.requestedChanged = false;
+		}
 		return this.requestedFloors;
 	}
 
 	Floor getMaxFloor() {
-		Floor maxFloor = null;
-		float floorHeight = Float.MIN_VALUE;
-		for (final Floor f : this.floors) {
-			if (f.getHeight() > floorHeight) {
-				floorHeight = f.getHeight();
-				maxFloor = f;
-			}
-		}
-		return maxFloor;
+		return this.maxFloor;
 	}
 
 	Floor getMinFloor() {
-		Floor minFloor = null;
-		float floorHeight = Float.MAX_VALUE;
-		for (final Floor f : this.floors) {
-			if (f.getHeight() < floorHeight) {
-				floorHeight = f.getHeight();
-				minFloor = f;
-			}
-		}
-		return minFloor;
+		return this.minFloor;
 	}
 
 	// called by Person
 	public final void requestFloor(final Floor floor) {
-		if (!this.floors.contains(floor)) {
+		final int position = getPosition(floor);
+		if (position < 0) {
 			throw new IllegalArgumentException("Cannot request unreachable floors.");
 		}
-		if (!this.requestedFloors.contains(floor)) {
-			this.requestedFloors.add(floor);
-			for (final Listener listener : this.listeners) {
+		if (!this.requested.get(position)) {
+			this.requested.set(position);
+			this.requestedChanged = true;
+			for (final Listener listener : this.listeners.getListeners()) {
 				listener.floorRequested(floor);
 			}
 		}
 	}
 
 	final void requestFulfilled(final Floor floor) {
-		if (!this.floors.contains(floor)) {
+		final int position = getPosition(floor);
+		if (position < 0) {
 			throw new IllegalArgumentException("Cannot fulfill request for unreachable floor.  " + floor);
 		}
-		this.requestedFloors.remove(floor);
+		if (this.requested.get(position)) {
+			this.requested.clear(position);
+			this.requestedChanged = true;
+		}
 	}
 
 	public interface Listener {
@@ -5,8 +5,8 @@
 package org.intranet.elevator.model;
 
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 import org.intranet.elevator.model.operate.Person;
 import org.intranet.sim.ModelElement;
@@ -15,7 +15,11 @@ import org.intranet.sim.event.EventQueue;
 public class Location extends ModelElement {
 	private float height;
 	private final int capacity;
-	private final List<Person> people = new LinkedList<>();
+	/**
+	 * The people here, in the order they came. Leaving is constant time, which
+	 * matters for a crowded lobby.
+	 */
+	private final Set<Person> people = new LinkedHashSet<>();
 
 	Location(final EventQueue eQ, final float height, final int capacity) {
 		super(eQ);
@@ -51,6 +55,13 @@ public class Location extends ModelElement {
 		}
 	}
 
+	/**
+	 * @return the number of people here.
+	 */
+	public final int getOccupantCount() {
+		return this.people.size();
+	}
+
 	public final boolean isAtCapacity() {
 		return (this.people.size() == this.capacity);
 	}
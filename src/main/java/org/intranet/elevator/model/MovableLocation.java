@@ -123,6 +123,15 @@ public abstract class MovableLocation extends Location {
 		public void updateTime() {
 			setHeight(currentValue(MovableLocation.this.eventQueue.getCurrentTime()));
 		}
+
+		/**
+		 * The total distance is summed over the time steps, and the dispatchers
+		 * break ties on it, so every step is pushed.
+		 */
+		@Override
+		public boolean isInterpolatedOnDemand() {
+			return false;
+		}
 	}
 
 	private void travel() {
@@ -6,7 +6,6 @@ package org.intranet.elevator.model.operate;
 
 import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.intranet.elevator.model.Car;
@@ -30,10 +29,13 @@ import org.intranet.statistics.Table;
  */
 public class Building extends Model {
 	private float height; // external height of building
-	private final List<Floor> floors = new LinkedList<>();
-	private final List<Car> cars = new LinkedList<>();
+	private final List<Floor> floors = new ArrayList<>();
+	private final List<Car> cars = new ArrayList<>();
 	private Controller metaController;
-	private final List<Person> people = new LinkedList<>();
+	/**
+	 * The people by row in the statistics.
+	 */
+	private final RiderStore riders = new RiderStore();
 
 	private Building() {
 		super(null);
@@ -59,7 +61,7 @@ public class Building extends Model {
 	public void createFloors(final int x) {
 		for (int i = 0; i < x; i++) {
 			// Units are feet in this example.
-			final Floor newFloor = new Floor(this.eventQueue, i + 1, 10 * i, 9);
+			final Floor newFloor = new Floor(this.eventQueue, i + 1, this.floors.size(), 10 * i, 9);
 			this.floors.add(newFloor);
 			this.height = 10 * (i + 1);
 
@@ -70,7 +72,7 @@ public class Building extends Model {
 
 	public void createCars(final int x, final int capacity) {
 		for (int i = 0; i < x; i++) {
-			final Car car = new Car(this.eventQueue, Integer.toString(i), 0.0f, capacity);
+			final Car car = new Car(this.eventQueue, Integer.toString(i), this.cars.size(), 0.0f, capacity);
 			this.cars.add(car);
 			this.metaController.addCar(car, 3.0f);
 
@@ -150,6 +152,14 @@ public class Building extends Model {
 		return this.floors.get(index);
 	}
 
+	/**
+	 * @param index the {@link Car#getIndex()} of the car
+	 * @return the car with the given index.
+	 */
+	public Car getCar(final int index) {
+		return this.cars.get(index);
+	}
+
 	/**
 	 * create new person starting at given location.
 	 *
@@ -157,11 +167,43 @@ public class Building extends Model {
 	 * @return new person.
 	 */
 	public Person createPerson(final Location startLocation) {
-		final Person person = new Person(this.eventQueue, startLocation);
-		this.people.add(person);
+		return createPerson(startLocation, this.riders.size());
+	}
+
+	/**
+	 * Reserve rows in the person statistics for people that are created later,
+	 * with {@link #createPerson(Location, int)}. Reserved rows show zeros.
+	 *
+	 * @param count the number of rows the person statistics have at least.
+	 */
+	public void reservePersonRows(final int count) {
+		this.riders.ensureSize(count);
+	}
+
+	/**
+	 * create new person starting at given location, in the given row of the
+	 * person statistics. When the person leaves the building, see
+	 * {@link Person#setLeaveAtDestination(boolean)}, only its times are kept.
+	 *
+	 * @param startLocation start location, usually a {@link Floor}
+	 * @param row           the row, from 0. Rows that are skipped are reserved,
+	 *                      see {@link #reservePersonRows(int)}.
+	 * @return new person.
+	 */
+	public Person createPerson(final Location startLocation, final int row) {
+		final Person person = new Person(this.eventQueue, startLocation, () -> this.riders.retire(row));
+		this.riders.set(row, person);
 		return person;
 	}
 
+	/**
+	 * @return true if nobody waits for or travels in a car.
+	 */
+	@Override
+	public boolean isQuiescent() {
+		return this.riders.isQuiescent();
+	}
+
 	@Override
 	public List<Table> getStatistics() {
 		// TODO : Update existing tables instead of creating new ones.
@@ -192,18 +234,17 @@ public class Building extends Model {
 	}
 
 	private Table generatePersonTable() {
-		final long[] waitingTimes = new long[this.people.size()];
-		final long[] travelTimes = new long[this.people.size()];
-		final long[] totalTimes = new long[this.people.size()];
-
-		int personNum = 0;
-		final String[] peopleRows = new String[this.people.size()];
-		for (final Iterator<Person> peopleI = this.people.iterator(); peopleI.hasNext(); personNum++) {
-			final Person person = peopleI.next();
+		final int rows = this.riders.size();
+		final long[] waitingTimes = new long[rows];
+		final long[] travelTimes = new long[rows];
+		final long[] totalTimes = new long[rows];
+
+		final String[] peopleRows = new String[rows];
+		for (int personNum = 0; personNum < rows; personNum++) {
 			peopleRows[personNum] = "Person " + (personNum + 1);
-			waitingTimes[personNum] = person.getTotalWaitingTime();
-			travelTimes[personNum] = person.getTotalTravelTime();
-			totalTimes[personNum] = person.getTotalTime();
+			waitingTimes[personNum] = this.riders.getWaitingTime(personNum);
+			travelTimes[personNum] = this.riders.getTravelTime(personNum);
+			totalTimes[personNum] = waitingTimes[personNum] + travelTimes[personNum];
 		}
 		final Table personTable = new Table(peopleRows, "Person");
 		personTable.addColumn(new LongColumn("Waiting Time", waitingTimes));
@@ -211,4 +252,4 @@ public class Building extends Model {
 		personTable.addColumn(new LongColumn("Total Time", totalTimes));
 		return personTable;
 	}
-}
\ No newline at end of file
+}
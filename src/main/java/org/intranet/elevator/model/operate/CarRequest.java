@@ -34,4 +34,9 @@ public final class CarRequest implements CarRequestPanel.ButtonListener {
 	public void pressedDown() {
 		this.megaController.requestCar(this.floor, Direction.DOWN);
 	}
+
+	@Override
+	public void registeredDestination(final Floor destination) {
+		this.megaController.requestDestination(this.floor, destination);
+	}
 }
\ No newline at end of file
@@ -4,19 +4,12 @@
  */
 package org.intranet.elevator.model.operate;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
-
 import org.intranet.elevator.model.Car;
 import org.intranet.elevator.model.CarEntrance;
-import org.intranet.elevator.model.CarRequestPanel;
 import org.intranet.elevator.model.Door;
-import org.intranet.elevator.model.DoorSensor;
 import org.intranet.elevator.model.Floor;
 import org.intranet.elevator.model.Location;
 import org.intranet.sim.ModelElement;
-import org.intranet.sim.event.Event;
 import org.intranet.sim.event.EventQueue;
 import org.intranet.sim.event.TrackingUpdateEvent;
 
@@ -131,16 +124,31 @@ public final class Person extends ModelElement {
 	private Floor destination;
 	private Location currentLocation;
 	private int percentMoved = -1;
-	private final Map<DoorSensor.Listener, DoorSensor> sensorListenerMap = new HashMap<>();
-	private final Map<Door.Listener, Door> doorListenerMap = new HashMap<>();
-	private CarRequestPanel.ArrivalListener arrivalListener;
+	/**
+	 * The walk into or out of a car that is in progress, or null.
+	 */
+	private TrackingUpdateEvent movement;
+	/**
+	 * Lets the floor on which we wait move us into a car, see
+	 * {@link Floor#waitForCar(Floor.WaitingRider, boolean)}.
+	 */
+	private final Floor.WaitingRider rider = this::beginEnterCar;
 	private long totalWaitingTime;
 	private long startWaitTime = -1;
 	private long totalTravelTime;
 	private long startTravelTime = -1;
+	/**
+	 * True if the person leaves the building when it gets out of the car.
+	 */
+	private boolean leaveAtDestination;
+	/**
+	 * Called when the person has left the building.
+	 */
+	private final Runnable leftBuilding;
 
-	Person(final EventQueue eQ, final Location startLocation) {
+	Person(final EventQueue eQ, final Location startLocation, final Runnable leftBuilding) {
 		super(eQ);
+		this.leftBuilding = leftBuilding;
 		// TODO: Deal with the start location being at capacity.
 		movePerson(startLocation);
 	}
@@ -156,172 +164,7 @@ public final class Person extends ModelElement {
 		final boolean up = destinationFloorNumber > currentFloorNumber;
 
 		beginWaiting();
-		startPayingAttention(up);
-		tryToEnterCar(up);
-	}
-
-	/**
-	 * Check each arriving car, to see if it can bring us in <up> direction Connect
-	 * listener to {@link CarRequestPanel.ArrivalListener} and checks each arrival.
-	 * Note that we can not then enter right away, as car may be full, people have
-	 * to get out, others will want to get in,etc. Therefore an arrival triggers
-	 * setup of another listener to wait for our chance.
-	 * <p>
-	 * Note, this function does NOT let the person press a call button, it only
-	 * watches arriving cars and tries to enter them.
-	 * </p>
-	 *
-	 * @param up is true if we want to go up, false if down.
-	 */
-	private void startPayingAttention(final boolean up) {
-		final Floor here = (Floor) this.currentLocation;
-		final CarRequestPanel callButton = here.getCallPanel();
-		this.arrivalListener = new CarRequestPanel.ArrivalListener() {
-			@Override
-			public void arrivedUp(final CarEntrance entrance) {
-				if (!up) {
-					return;
-				}
-				payAttentionToEntrance(entrance, up);
-				tryToEnterCar(up);
-			}
-
-			@Override
-			public void arrivedDown(final CarEntrance entrance) {
-				if (up) {
-					return;
-				}
-				payAttentionToEntrance(entrance, up);
-				tryToEnterCar(up);
-			}
-		};
-		callButton.addArrivalListener(this.arrivalListener);
-
-		/** hack to handle already open doors. See #492 */
-		for (final Iterator<CarEntrance> i = ((Floor) this.currentLocation).getCarEntrances(); i.hasNext();) {
-			final CarEntrance thisEntrance = i.next();
-			if (thisEntrance.getDoor().getState() != Door.State.CLOSED
-					&& ((thisEntrance.isUp() && up) || (!up && thisEntrance.isDown()))) {
-				payAttentionToEntrance(thisEntrance, up);
-			}
-		}
-	}
-
-	/**
-	 * Check if there is some car in given direction. This call is normally
-	 * triggered by a car arriving on this floor, which is connected to the
-	 * {@link CarRequestPanel.ArrivalListener} in {@link #startPayingAttention}
-	 *
-	 * @param entrance is the car entrance to be checked
-	 * @param up       is true if we want up, false if down.
-	 */
-	private void payAttentionToEntrance(final CarEntrance entrance, final boolean up) {
-		final DoorSensor sensor = entrance.getDoorSensor();
-		final Door door = entrance.getDoor();
-		// pay attention to unobstructed
-		final DoorSensor.Listener sensorListener = new DoorSensor.Listener() {
-			@Override
-			public void sensorCleared() {
-			}
-
-			@Override
-			public void sensorObstructed() {
-			}
-
-			@Override
-			public void sensorUnobstructed() {
-				tryToEnterCar(up);
-			}
-		};
-		sensor.addListener(sensorListener);
-		this.sensorListenerMap.put(sensorListener, sensor);
-		// pay attention to doorClosed
-		final Door.Listener doorListener = new Door.Listener() {
-			@Override
-			public void doorOpened() {
-				tryToEnterCar(up);
-			}
-
-			@Override
-			public void doorClosed() {
-				// stop paying attention to this entrance
-				sensor.removeListener(sensorListener);
-				Person.this.sensorListenerMap.remove(sensorListener);
-				door.removeListener(this);
-				Person.this.doorListenerMap.remove(this);
-			}
-		};
-		door.addListener(doorListener, false);
-		this.doorListenerMap.put(doorListener, door);
-	}
-
-	private void stopPayingAttention() {
-		final Floor here = (Floor) this.currentLocation;
-		final CarRequestPanel callButton = here.getCallPanel();
-		callButton.removeArrivalListener(this.arrivalListener);
-		this.arrivalListener = null;
-
-		for (final Object element : this.sensorListenerMap.keySet()) {
-			final DoorSensor.Listener listener = (DoorSensor.Listener) element;
-			final DoorSensor sensor = this.sensorListenerMap.get(listener);
-			sensor.removeListener(listener);
-		}
-		this.sensorListenerMap.clear();
-
-		for (final Object element : this.doorListenerMap.keySet()) {
-			final Door.Listener listener = (Door.Listener) element;
-			final Door door = this.doorListenerMap.get(listener);
-			door.removeListener(listener);
-		}
-		this.doorListenerMap.clear();
-	}
-
-	/**
-	 * Try to enter the given car. Just fails if there is someone blocking the
-	 * entrance, door not open, car full, etc. If there is no car where we can enter
-	 * in (maybe after letting some people out), then the call panel is operated to
-	 * call a new car.
-	 * <p>
-	 * The idea is to keep calling this. This is done from
-	 * {@link #payAttentionToEntrance(CarEntrance, boolean)} where
-	 * {@link DoorSensor.Listener#sensorUnobstructed()} is used to trigger these
-	 * calls.
-	 * </p>
-	 *
-	 * @param up the direction we want to travel in. true if we want to go up, false
-	 *           if down.
-	 */
-	private void tryToEnterCar(final boolean up) {
-		final Floor here = (Floor) this.currentLocation;
-		final CarRequestPanel callButton = here.getCallPanel();
-		int numCandidateEntrances = 0;
-
-		for (final Iterator<CarEntrance> i = here.getCarEntrances(); i.hasNext();) {
-			final CarEntrance entrance = i.next();
-			final Door door = entrance.getDoor();
-			final DoorSensor sensor = entrance.getDoorSensor();
-			final Car car = (Car) door.getTo();
-			// if door is open && sensor is !obstructed && not at capacity
-			if (door.getState() != Door.State.CLOSED && sensor.getState() != DoorSensor.State.OBSTRUCTED
-					&& !car.isAtCapacity() && !entrance.arePeopleWaitingToGetOut() && up == entrance.isUp()) {
-				stopPayingAttention();
-				beginEnterCar(entrance);
-				return;
-			} else if (sensor.getState() == DoorSensor.State.OBSTRUCTED || entrance.arePeopleWaitingToGetOut()) {
-				numCandidateEntrances++;
-			}
-		}
-
-		if (numCandidateEntrances > 0) {
-			return;
-		}
-
-		if (up && !callButton.isUp()) {
-			callButton.pressUp();
-		}
-		if (!up && !callButton.isDown()) {
-			callButton.pressDown();
-		}
+		((Floor) this.currentLocation).waitForCar(this.rider, up, newDestination);
 	}
 
 	/**
@@ -334,7 +177,8 @@ public final class Person extends ModelElement {
 	private void beginEnterCar(final CarEntrance entrance) {
 		entrance.getDoorSensor().obstruct();
 		final long currentTime = this.eventQueue.getCurrentTime();
-		final Event enteringCarEvent = new TrackingUpdateEvent(currentTime, 0.0f, currentTime + 2000, 100.0f) {
+		final TrackingUpdateEvent enteringCarEvent = new TrackingUpdateEvent(currentTime, 0.0f, currentTime + 2000,
+				100.0f) {
 			@Override
 			public void updateTime() {
 				Person.this.percentMoved = (int) currentValue(Person.this.eventQueue.getCurrentTime());
@@ -342,11 +186,13 @@ public final class Person extends ModelElement {
 
 			@Override
 			public void perform() {
+				Person.this.movement = null;
 				Person.this.percentMoved = -1;
 				enterCar(entrance);
 				entrance.getDoorSensor().unobstruct();
 			}
 		};
+		this.movement = enteringCarEvent;
 		this.eventQueue.addEvent(enteringCarEvent);
 	}
 
@@ -391,10 +237,35 @@ public final class Person extends ModelElement {
 		return this.totalWaitingTime + this.totalTravelTime;
 	}
 
+	/**
+	 * Let the person leave the building after getting out of the car at the
+	 * destination, instead of staying on that floor. For long streams of riders,
+	 * which would otherwise fill up the floors.
+	 *
+	 * @param leave true to leave the building at the destination.
+	 */
+	public void setLeaveAtDestination(final boolean leave) {
+		this.leaveAtDestination = leave;
+	}
+
 	public Floor getDestination() {
 		return this.destination;
 	}
 
+	/**
+	 * @return true if the person waits for a car.
+	 */
+	public boolean isWaiting() {
+		return this.startWaitTime != -1;
+	}
+
+	/**
+	 * @return true if the person is in a car, on the way to the destination.
+	 */
+	public boolean isTravelling() {
+		return this.startTravelTime != -1;
+	}
+
 	/**
 	 * When a person arrives at the destination, this is all the processing that has
 	 * to happen.
@@ -420,15 +291,9 @@ public final class Person extends ModelElement {
 		beginTravel();
 		car.getFloorRequestPanel().requestFloor(this.destination);
 		// setup for getting out of the car
-		car.addListener(new Car.Listener() {
-			@Override
-			public void docked() {
-				if (Person.this.destination == car.getLocation()) {
-					final Door arrivalDoor = Person.this.destination.getCarEntranceForCar(car).getDoor();
-					car.removeListener(this);
-					waitForDoorOpen(arrivalDoor);
-				}
-			}
+		car.addDestinationListener(this.destination, () -> {
+			final Door arrivalDoor = Person.this.destination.getCarEntranceForCar(car).getDoor();
+			waitForDoorOpen(arrivalDoor);
 		});
 	}
 
@@ -462,7 +327,7 @@ public final class Person extends ModelElement {
 			entrance.getDoorSensor().obstruct();
 			// TODO: Deal with the floor being at capacity.
 			Person.this.percentMoved = 0;
-			Person.this.eventQueue.addEvent(new TrackingUpdateEvent(Person.this.eventQueue.getCurrentTime(), 0,
+			Person.this.movement = new TrackingUpdateEvent(Person.this.eventQueue.getCurrentTime(), 0,
 					Person.this.eventQueue.getCurrentTime() + 2000, 100) {
 				@Override
 				public void updateTime() {
@@ -471,12 +336,19 @@ public final class Person extends ModelElement {
 
 				@Override
 				public void perform() {
+					Person.this.movement = null;
 					Person.this.percentMoved = -1;
 					movePerson(Person.this.destination);
 					entrance.getDoorSensor().unobstruct();
 					Person.this.destination = null;
+					if (Person.this.leaveAtDestination) {
+						Person.this.currentLocation.personLeaves(Person.this);
+						Person.this.currentLocation = null;
+						Person.this.leftBuilding.run();
+					}
 				}
-			});
+			};
+			Person.this.eventQueue.addEvent(Person.this.movement);
 		});
 		final Door.Listener doorListener = new Door.Listener() {
 			@Override
@@ -493,6 +365,10 @@ public final class Person extends ModelElement {
 	}
 
 	public int getPercentMoved() {
+		final TrackingUpdateEvent walk = this.movement;
+		if (walk != null) {
+			return (int) walk.currentValue(this.eventQueue.getCurrentTime());
+		}
 		return this.percentMoved;
 	}
 }
\ No newline at end of file
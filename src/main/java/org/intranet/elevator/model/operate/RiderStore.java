@@ -0,0 +1,94 @@
+package org.intranet.elevator.model.operate;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The rows of the person statistics of a {@link Building}, kept in arrays by
+ * row. A row holds its {@link Person} while the person is in the building. A
+ * person that left the building, see {@link Person#setLeaveAtDestination}, only
+ * leaves its times behind. So the long traffic-profile and trace runs keep
+ * about 20 bytes per finished rider instead of the Person. The cars, doors and
+ * riders still in the building are the usual objects.
+ */
+final class RiderStore {
+	private Person[] people = new Person[16];
+	private long[] waitingTimes = new long[16];
+	private long[] travelTimes = new long[16];
+	/**
+	 * Rows that have had a person.
+	 */
+	private final BitSet created = new BitSet();
+	private int size;
+
+	/**
+	 * @return the number of rows.
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * Make sure there are at least the given number of rows. New rows are
+	 * reserved: all zeros until their person is set.
+	 *
+	 * @param count the number of rows
+	 */
+	void ensureSize(final int count) {
+		if (count > this.people.length) {
+			final int capacity = Math.max(count, this.people.length * 2);
+			this.people = Arrays.copyOf(this.people, capacity);
+			this.waitingTimes = Arrays.copyOf(this.waitingTimes, capacity);
+			this.travelTimes = Arrays.copyOf(this.travelTimes, capacity);
+		}
+		this.size = Math.max(this.size, count);
+	}
+
+	/**
+	 * @param row    the row, from 0. Must not have had a person yet.
+	 * @param person the person of the row
+	 */
+	void set(final int row, final Person person) {
+		ensureSize(row + 1);
+		if (this.created.get(row)) {
+			throw new IllegalStateException("Row " + row + " already has a person");
+		}
+		this.created.set(row);
+		this.people[row] = person;
+	}
+
+	/**
+	 * Keep only the times of the person of the row, which left the building.
+	 *
+	 * @param row the row
+	 */
+	void retire(final int row) {
+		final Person person = this.people[row];
+		this.waitingTimes[row] = person.getTotalWaitingTime();
+		this.travelTimes[row] = person.getTotalTravelTime();
+		this.people[row] = null;
+	}
+
+	long getWaitingTime(final int row) {
+		final Person person = this.people[row];
+		return person == null ? this.waitingTimes[row] : person.getTotalWaitingTime();
+	}
+
+	long getTravelTime(final int row) {
+		final Person person = this.people[row];
+		return person == null ? this.travelTimes[row] : person.getTotalTravelTime();
+	}
+
+	/**
+	 * @return true if no person in the building waits for or travels in a car.
+	 */
+	boolean isQuiescent() {
+		for (int row = 0; row < this.size; row++) {
+			final Person person = this.people[row];
+			if (person != null && (person.isWaiting() || person.isTravelling())) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -4,16 +4,48 @@
  */
 package org.intranet.elevator.model.operate.controller;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 
 import org.intranet.elevator.model.Floor;
 
+/**
+ * The stops of a car, in the order the car makes them. A stop is known by its
+ * sweep ordinal: the position of its floor in the serviced floors going up, and
+ * counting on past the top floor coming down, see
+ * {@link #ordinal(List, Floor, Direction)}. The list is an array of ordinals,
+ * membership is a bit per ordinal, and there is one {@link Assignment} per
+ * ordinal, made when first needed. Finding where a new stop goes compares ints.
+ */
 class CarAssignments {
-	private List<Assignment> list = new LinkedList<>();
+	/**
+	 * The serviced floors the ordinals are for.
+	 */
+	private List<Floor> floors;
+	private int floorCount;
+	/**
+	 * Position in {@link #floors} by {@link Floor#getIndex()}, -1 for none.
+	 */
+	private int[] positionByIndex = new int[0];
+	/**
+	 * The assignment of each ordinal, made once.
+	 */
+	private Assignment[] byOrdinal = new Assignment[0];
+	/**
+	 * The ordinals in the list.
+	 */
+	private BitSet present = new BitSet();
+	/**
+	 * The ordinals in the order of the stops.
+	 */
+	private int[] order = new int[8];
+	private int size;
+	/**
+	 * Changes with each change of the list, see {@link #getVersion()}.
+	 */
+	private int version;
 	private final String carName;
 
 	CarAssignments() {
@@ -27,7 +59,13 @@ class CarAssignments {
 
 	private CarAssignments(final CarAssignments ca) {
 		this(ca.carName + "-clone");
-		this.list = new ArrayList<>(ca.list);
+		this.floors = ca.floors;
+		this.floorCount = ca.floorCount;
+		this.positionByIndex = ca.positionByIndex;
+		this.byOrdinal = ca.byOrdinal.clone();
+		this.present = (BitSet) ca.present.clone();
+		this.order = ca.order.clone();
+		this.size = ca.size;
 	}
 
 	void printAssignments(final String prefix) {
@@ -37,9 +75,8 @@ class CarAssignments {
 		System.out.flush();
 		System.err.flush();
 		System.out.print(prefix + " ");
-		for (final Object element : this.list) {
-			final Assignment a = (Assignment) element;
-			System.out.print(a.toString() + ",");
+		for (int i = 0; i < this.size; i++) {
+			System.out.print(get(i).toString() + ",");
 		}
 		System.out.println();
 		System.out.flush();
@@ -62,39 +99,85 @@ class CarAssignments {
 		}
 	}
 
+	/**
+	 * Add the stop, unless it is already in the list.
+	 *
+	 * @param floors        the serviced floors
+	 * @param base          where the car could stop first, NONE counts as UP
+	 * @param newAssignment the new stop, UP or DOWN
+	 * @throws IllegalArgumentException if the new stop has no direction, or a
+	 *                                  floor is not one of the serviced floors
+	 */
 	void addAssignment(final List<Floor> floors, final Assignment base, final Assignment newAssignment) {
-		log("addAssignment(floor, " + base + ", " + newAssignment + ")");
-		printAssignments("addAssignment");
-		if (this.list.isEmpty()) {
+		if (this.log) {
+			log("addAssignment(floor, " + base + ", " + newAssignment + ")");
+			printAssignments("addAssignment");
+		}
+		if (newAssignment.getDirection() == Direction.NONE) {
+			throw new IllegalArgumentException("An assignment needs a direction");
+		}
+		final int newOrdinal = ordinal(floors, newAssignment.getDestination(), newAssignment.getDirection());
+		if (this.byOrdinal[newOrdinal] == null) {
+			this.byOrdinal[newOrdinal] = newAssignment;
+		}
+		addAssignment(ordinal(floors, base.getDestination(), base.getDirection()), newOrdinal);
+	}
+
+	/**
+	 * Add the stop, unless it is already in the list.
+	 *
+	 * @param baseOrdinal ordinal of where the car could stop first
+	 * @param newOrdinal  ordinal of the new stop, UP or DOWN
+	 */
+	void addAssignment(final int baseOrdinal, final int newOrdinal) {
+		if (this.size == 0) {
 			log("Add to empty list.");
-			System.out.flush();
-			this.list.add(newAssignment);
+			insert(0, newOrdinal);
 			return;
 		}
-		if (this.list.contains(newAssignment)) {
+		if (this.present.get(newOrdinal)) {
 			return;
 		}
-		final int newNumStops = maxStops(floors, base, newAssignment);
-		log("max stops with new: " + newNumStops);
-
-		// Iterate through the list of destinations and determine the best place
-		// to put the new assignment.
-		// It should go just before the destination that has a greater 'maxStops'
-		// value or at the end if there is no greater value.
-		for (final ListIterator<Assignment> l = this.list.listIterator(); l.hasNext();) {
-			final Assignment a = l.next();
-			final int aNumStops = maxStops(floors, base, a);
-			log("stops for: " + a + " = " + aNumStops);
+		insert(getInsertionIndex(baseOrdinal, newOrdinal), newOrdinal);
+	}
+
+	/**
+	 * Where a new stop goes: just before the first stop that has a greater
+	 * 'maxStops' value, or at the end if there is no greater value.
+	 *
+	 * @param baseOrdinal ordinal of where the car could stop first
+	 * @param newOrdinal  ordinal of the new stop, not in the list yet
+	 * @return the index the new stop gets.
+	 */
+	int getInsertionIndex(final int baseOrdinal, final int newOrdinal) {
+		final int newNumStops = maxStops(baseOrdinal, newOrdinal);
+		if (this.log) {
+			log("max stops with new: " + newNumStops);
+		}
+		for (int i = 0; i < this.size; i++) {
+			final int aNumStops = maxStops(baseOrdinal, this.order[i]);
+			if (this.log) {
+				log("stops for: " + get(i) + " = " + aNumStops);
+			}
 			if (aNumStops > newNumStops) {
-				l.previous();
-				l.add(newAssignment);
 				log("add new assignment here");
-				return;
+				return i;
 			}
 		}
 		// There were no assignments after our new assignment
-		this.list.add(newAssignment);
 		log("append new assignment");
+		return this.size;
+	}
+
+	private void insert(final int index, final int ordinal) {
+		if (this.size == this.order.length) {
+			this.order = Arrays.copyOf(this.order, this.size * 2);
+		}
+		System.arraycopy(this.order, index, this.order, index + 1, this.size - index);
+		this.order[index] = ordinal;
+		this.present.set(ordinal);
+		this.size++;
+		this.version++;
 	}
 
 	/*
@@ -105,19 +188,7 @@ class CarAssignments {
 	 * of possible floors. The return value can be between 0 and two times the total
 	 * number of floors.
 	 */
-	private int maxStops(final List<Floor> floors, final Assignment base, final Assignment destination) {
-		final int topFloorNumber = floors.size();
-
-		int baseNumber = floors.indexOf(base.getDestination());
-		int destNumber = floors.indexOf(destination.getDestination());
-
-		if (base.getDirection() == Direction.DOWN) {
-			baseNumber = topFloorNumber + (topFloorNumber - baseNumber - 1);
-		}
-		if (destination.getDirection() == Direction.DOWN) {
-			destNumber = topFloorNumber + (topFloorNumber - destNumber - 1);
-		}
-
+	private int maxStops(final int baseNumber, final int destNumber) {
 		// If dest comes after base in the list of destinations,
 		// Then the ordinal value is just the difference between the two
 		// positions.
@@ -129,20 +200,137 @@ class CarAssignments {
 			return difference;
 		}
 
-		return 2 * topFloorNumber + difference;
+		return 2 * this.floorCount + difference;
+	}
+
+	/**
+	 * @param floors    the serviced floors
+	 * @param floor     one of the serviced floors
+	 * @param direction the direction. NONE is only for the base of a car without
+	 *                  stops, which counts as going up, as it always did when
+	 *                  the stops were ordered.
+	 * @return the position of the floor and direction in a sweep up through the
+	 *         floors and back down: from 0 to twice the number of floors.
+	 * @throws IllegalArgumentException if the floor is not one of the serviced
+	 *                                  floors. It has no place in the sweep.
+	 */
+	int ordinal(final List<Floor> floors, final Floor floor, final Direction direction) {
+		setFloors(floors);
+		final int position = getPosition(floor);
+		if (position < 0) {
+			throw new IllegalArgumentException("Floor " + floor.getFloorNumber() + " is not serviced by the car");
+		}
+		if (direction == Direction.DOWN) {
+			return 2 * this.floorCount - position - 1;
+		}
+		// UP, or NONE for a base
+		return position;
+	}
+
+	private int getPosition(final Floor floor) {
+		final int index = floor.getIndex();
+		if (index >= 0 && index < this.positionByIndex.length) {
+			final int position = this.positionByIndex[index];
+			if (position >= 0 && this.floors.get(position) == floor) {
+				return position;
+			}
+		}
+		// floors without index, or with the index of another floor
+		return this.floors.indexOf(floor);
+	}
+
+	/**
+	 * Take the serviced floors for the ordinals. If they changed, the ordinals
+	 * of the list are recomputed.
+	 */
+	void setFloors(final List<Floor> newFloors) {
+		if (newFloors == this.floors && newFloors.size() == this.floorCount) {
+			return;
+		}
+		final Assignment[] current = new Assignment[this.size];
+		for (int i = 0; i < this.size; i++) {
+			current[i] = get(i);
+		}
+		this.floors = newFloors;
+		this.floorCount = newFloors.size();
+		int maxIndex = -1;
+		for (final Floor floor : newFloors) {
+			maxIndex = Math.max(maxIndex, floor.getIndex());
+		}
+		this.positionByIndex = new int[maxIndex + 1];
+		Arrays.fill(this.positionByIndex, -1);
+		for (int position = this.floorCount - 1; position >= 0; position--) {
+			final int index = newFloors.get(position).getIndex();
+			if (index >= 0) {
+				this.positionByIndex[index] = position;
+			}
+		}
+		this.byOrdinal = new Assignment[2 * this.floorCount];
+		this.present.clear();
+		for (int i = 0; i < current.length; i++) {
+			final int ordinal = ordinal(newFloors, current[i].getDestination(), current[i].getDirection());
+			this.order[i] = ordinal;
+			this.byOrdinal[ordinal] = current[i];
+			this.present.set(ordinal);
+		}
+	}
+
+	/**
+	 * @param ordinal the ordinal of a stop, UP or DOWN
+	 * @return the one assignment for the ordinal.
+	 */
+	private Assignment getAssignment(final int ordinal) {
+		Assignment assignment = this.byOrdinal[ordinal];
+		if (assignment == null) {
+			if (ordinal < this.floorCount) {
+				assignment = new Assignment(this.floors.get(ordinal), Direction.UP);
+			} else {
+				assignment = new Assignment(this.floors.get(2 * this.floorCount - ordinal - 1), Direction.DOWN);
+			}
+			this.byOrdinal[ordinal] = assignment;
+		}
+		return assignment;
 	}
 
 	void removeAssignment(final Assignment assignment) {
-		if (!this.list.remove(assignment)) {
+		final int index = indexOf(assignment);
+		if (index < 0) {
 			throw new IllegalStateException("Can't remove non-existant assignment.");
 		}
+		this.present.clear(this.order[index]);
+		System.arraycopy(this.order, index + 1, this.order, index, this.size - index - 1);
+		this.size--;
+		this.version++;
 	}
 
 	Assignment getCurrentAssignment() {
-		if (this.list.isEmpty()) {
+		if (this.size == 0) {
 			return null;
 		}
-		return this.list.get(0);
+		return get(0);
+	}
+
+	/**
+	 * @return the number of assignments.
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * @param index from 0, the current assignment
+	 * @return the assignment
+	 */
+	Assignment get(final int index) {
+		return getAssignment(this.order[index]);
+	}
+
+	/**
+	 * @return a number that changes when the list changes, to know when something
+	 *         derived from the list is stale.
+	 */
+	int getVersion() {
+		return this.version;
 	}
 
 	Iterator<Assignment> iteratorIncluding(final List<Floor> floors, final Assignment base, final Assignment endPoint) {
@@ -152,23 +340,55 @@ class CarAssignments {
 	}
 
 	Iterator<Assignment> iterator() {
-		return this.list.iterator();
+		final Assignment[] copy = new Assignment[this.size];
+		for (int i = 0; i < this.size; i++) {
+			copy[i] = get(i);
+		}
+		return Arrays.asList(copy).iterator();
+	}
+
+	/**
+	 * @return the index of the assignment, -1 if it is not in the list.
+	 */
+	private int indexOf(final Assignment assignment) {
+		if (!contains(assignment)) {
+			return -1;
+		}
+		final int ordinal = ordinal(this.floors, assignment.getDestination(), assignment.getDirection());
+		for (int i = 0; i < this.size; i++) {
+			if (this.order[i] == ordinal) {
+				return i;
+			}
+		}
+		throw new IllegalStateException("Assignment " + assignment + " is marked but not in the list");
 	}
 
 	boolean contains(final Assignment assignment) {
-		return this.list.contains(assignment);
+		if (this.size == 0 || assignment.getDirection() == Direction.NONE
+				|| getPosition(assignment.getDestination()) < 0) {
+			return false;
+		}
+		return contains(ordinal(this.floors, assignment.getDestination(), assignment.getDirection()));
+	}
+
+	/**
+	 * @param ordinal the ordinal of a stop, see
+	 *                {@link #ordinal(List, Floor, Direction)}
+	 * @return true if the stop is in the list.
+	 */
+	boolean contains(final int ordinal) {
+		return this.present.get(ordinal);
 	}
 
 	@Override
 	public String toString() {
 		final StringBuffer sb = new StringBuffer();
-		for (final Iterator<Assignment> assignments = iterator(); assignments.hasNext();) {
-			final Assignment a = assignments.next();
+		for (int i = 0; i < this.size; i++) {
 			if (sb.length() > 0) {
 				sb.append(",");
 			}
-			sb.append(a.toString());
+			sb.append(get(i).toString());
 		}
 		return sb.toString();
 	}
-}
\ No newline at end of file
+}
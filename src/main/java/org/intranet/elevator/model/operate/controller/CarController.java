@@ -6,8 +6,6 @@ package org.intranet.elevator.model.operate.controller;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.intranet.elevator.model.Car;
@@ -22,6 +20,23 @@ public class CarController {
 	private final Car car;
 	private final float stoppingDistance;
 	private final CarAssignments assignments;
+	/**
+	 * Heights of the assignments, and the travel time to each one from the one
+	 * before, for {@link #legVersion} of the assignments.
+	 */
+	private float[] stopHeights = new float[8];
+	private float[] legTimes = new float[8];
+	private int legVersion = -1;
+	/**
+	 * The ranges between the serviced floors in the order a car going up or down
+	 * passes them, and the height each range ends at, for
+	 * {@link #contextFloorCount} serviced floors.
+	 */
+	private FloorContext[] upContexts;
+	private FloorContext[] downContexts;
+	private float[] upEnds;
+	private float[] downEnds;
+	private int contextFloorCount = -1;
 
 	public CarController(final Car c, final float stoppingDist) {
 		super();
@@ -55,8 +70,6 @@ public class CarController {
 
 	float getCost(final Floor floor, final Direction destinationDirection) {
 		// TODO: In morning simulation, cars get stuck on the top floor
-		final Assignment a = new Assignment(floor, destinationDirection);
-
 		if (this.assignments.getCurrentAssignment() == null) {
 			// don't care about direction
 			final float time = this.car.getTravelTime(floor);
@@ -65,7 +78,9 @@ public class CarController {
 
 		// Don't send another elevator to do the work if this elevator is already
 		// doing it.
-		if (this.assignments.contains(a)) {
+		final List<Floor> floors = this.car.getFloorRequestPanel().getServicedFloors();
+		final int ordinal = this.assignments.ordinal(floors, floor, destinationDirection);
+		if (this.assignments.contains(ordinal)) {
 			return 0.0F;
 		}
 
@@ -78,32 +93,93 @@ public class CarController {
 		float cost = 0.0F;
 
 		// For now, only #2 above is implemented.
+		// The stops are the assignments with the new one inserted. The legs
+		// between two existing assignments come from the cache; the sum is
+		// taken in the same order as ever, so the cost is the same to the bit.
+		final int insertAt = this.assignments.getInsertionIndex(getNearestBase(floors), ordinal);
+		updateLegs();
+		final int count = this.assignments.size();
+		final long stopTime = floor.getCarEntranceForCar(this.car).getDoor().getMinimumCycleTime();
+		final float height = floor.getHeight();
 		float currentHeight = this.car.getHeight();
-		for (final Iterator<Assignment> allDestinations = this.assignments.iteratorIncluding(
-				this.car.getFloorRequestPanel().getServicedFloors(), getNearestBase(), a); allDestinations.hasNext();) {
-			final Assignment nextAssignment = allDestinations.next();
-			final Floor nextDestination = nextAssignment.getDestination();
-			final float nextHeight = nextDestination.getHeight();
+		for (int stop = 0; stop <= count; stop++) {
+			// index of the assignment in the list without the new one
+			final int index = stop < insertAt ? stop : stop - 1;
+			final float nextHeight = stop == insertAt ? height : this.stopHeights[index];
 
 			// accumulator for number of stops
-			cost += floor.getCarEntranceForCar(this.car).getDoor().getMinimumCycleTime();
+			cost += stopTime;
 
 			// accumulator for total distance
-			cost += this.car.getTravelTime(nextHeight - currentHeight);
+			if (stop == 0 || stop == insertAt || stop == insertAt + 1) {
+				cost += this.car.getTravelTime(nextHeight - currentHeight);
+			} else {
+				cost += this.legTimes[index];
+			}
 
 			currentHeight = nextHeight;
 		}
 
 		// all destinations have been accumulated, and we did not add this stop.
 		// So now the stop must be added specifically from the last stop.
-		cost += this.car.getTravelTime(floor.getHeight() - currentHeight);
+		cost += this.car.getTravelTime(height - currentHeight);
 		return cost;
 	}
 
+	/**
+	 * @param floor     a serviced floor
+	 * @param direction UP or DOWN
+	 * @return true if the car will stop at the floor going in the direction.
+	 */
+	boolean hasStop(final Floor floor, final Direction direction) {
+		if (this.assignments.size() == 0) {
+			return false;
+		}
+		final List<Floor> floors = this.car.getFloorRequestPanel().getServicedFloors();
+		return this.assignments.contains(this.assignments.ordinal(floors, floor, direction));
+	}
+
+	/**
+	 * Bring everything {@link #getCost(Floor, Direction)} caches up to date, so
+	 * that it only reads until the assignments or the serviced floors change.
+	 * Then the costs of several cars can be computed at the same time.
+	 */
+	void prepareCost() {
+		final List<Floor> floors = this.car.getFloorRequestPanel().getServicedFloors();
+		this.assignments.setFloors(floors);
+		updateLegs();
+		updateContexts(floors);
+	}
+
+	/**
+	 * Cache the heights of the assignments, and the travel time to each from the
+	 * one before, if the assignments changed.
+	 */
+	private void updateLegs() {
+		if (this.legVersion == this.assignments.getVersion()) {
+			return;
+		}
+		final int count = this.assignments.size();
+		if (this.stopHeights.length < count) {
+			this.stopHeights = new float[count * 2];
+			this.legTimes = new float[count * 2];
+		}
+		for (int i = 0; i < count; i++) {
+			this.stopHeights[i] = this.assignments.get(i).getDestination().getHeight();
+			if (i > 0) {
+				this.legTimes[i] = this.car.getTravelTime(this.stopHeights[i] - this.stopHeights[i - 1]);
+			}
+		}
+		this.legVersion = this.assignments.getVersion();
+	}
+
 	/**
 	 * The nearest base is the nearest floor we could reasonably stop at.
+	 *
+	 * @return the ordinal of the base, see
+	 *         {@link CarAssignments#ordinal(List, Floor, Direction)}.
 	 */
-	private Assignment getNearestBase() {
+	private int getNearestBase(final List<Floor> floors) {
 		final Assignment current = this.assignments.getCurrentAssignment();
 		final Direction currAssignmentDirection = (current == null) ? Direction.NONE : current.getDirection();
 
@@ -113,13 +189,13 @@ public class CarController {
 			final CarEntrance entrance = carLocation.getCarEntranceForCar(this.car);
 			final Direction dockedDirection = entrance.isUp() ? Direction.UP
 					: entrance.isDown() ? Direction.DOWN : currAssignmentDirection;
-			return new Assignment(carLocation, dockedDirection);
+			return this.assignments.ordinal(floors, carLocation, dockedDirection);
 		}
 
 		// The second case is the car is idle
 		final Floor f = this.car.getFloorAt();
 		if (f != null) {
-			return new Assignment(f, currAssignmentDirection);
+			return this.assignments.ordinal(floors, f, currAssignmentDirection);
 		}
 
 		// Finally, the third case is the car is travelling
@@ -127,30 +203,89 @@ public class CarController {
 		final Direction carDirection = (current.getDestination().getHeight() < currentHeight) ? Direction.DOWN
 				: Direction.UP;
 
-		final List<Floor> floors = this.car.getFloorRequestPanel().getServicedFloors();
-		for (final Iterator<FloorContext> i = createFloorContexts(floors, carDirection); i.hasNext();) {
-			final FloorContext context = i.next();
-			if (context.contains(currentHeight)) {
-				final float distance = Math.abs(context.getNext().getHeight() - currentHeight);
-				final boolean canCarStop = distance >= this.stoppingDistance;
-				if (canCarStop || context.getNext() == getDestination()) {
-					return new Assignment(context.getNext(), carDirection);
-				}
-				return new Assignment(context.getSuccessor(), carDirection);
+		updateContexts(floors);
+		final FloorContext context = carDirection.isUp() ? findContextUp(currentHeight)
+				: findContextDown(currentHeight);
+		if (context == null) {
+			throw new IllegalStateException("The car is somehow not between two floors.");
+		}
+		final float distance = Math.abs(context.getNext().getHeight() - currentHeight);
+		final boolean canCarStop = distance >= this.stoppingDistance;
+		if (canCarStop || context.getNext() == getDestination()) {
+			return this.assignments.ordinal(floors, context.getNext(), carDirection);
+		}
+		return this.assignments.ordinal(floors, context.getSuccessor(), carDirection);
+	}
+
+	/**
+	 * Build the ranges between the serviced floors going up and going down, if
+	 * floors were added since they were last built.
+	 */
+	private void updateContexts(final List<Floor> floors) {
+		if (floors.size() == this.contextFloorCount) {
+			return;
+		}
+		this.upContexts = createFloorContexts(floors, Direction.UP);
+		this.downContexts = createFloorContexts(floors, Direction.DOWN);
+		this.upEnds = new float[this.upContexts.length];
+		this.downEnds = new float[this.downContexts.length];
+		for (int i = 0; i < this.upContexts.length; i++) {
+			this.upEnds[i] = this.upContexts[i].getNext().getHeight();
+			this.downEnds[i] = this.downContexts[i].getNext().getHeight();
+		}
+		this.contextFloorCount = floors.size();
+	}
+
+	/**
+	 * @return the first range going up that contains the height, or null.
+	 */
+	private FloorContext findContextUp(final float height) {
+		// the ends go up: the first range that ends at or above the height
+		int low = 0;
+		int high = this.upEnds.length;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (this.upEnds[mid] < height) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		if (low < this.upContexts.length && this.upContexts[low].contains(height)) {
+			return this.upContexts[low];
+		}
+		return null;
+	}
+
+	/**
+	 * @return the first range going down that contains the height, or null.
+	 */
+	private FloorContext findContextDown(final float height) {
+		// the ends go down: the first range that ends at or below the height
+		int low = 0;
+		int high = this.downEnds.length;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (this.downEnds[mid] > height) {
+				low = mid + 1;
+			} else {
+				high = mid;
 			}
 		}
-		throw new IllegalStateException("The car is somehow not between two floors.");
+		if (low < this.downContexts.length && this.downContexts[low].contains(height)) {
+			return this.downContexts[low];
+		}
+		return null;
 	}
 
 	/**
-	 * @param floors
-	 * @param carDirection
+	 * @param floors       the serviced floors
+	 * @param carDirection the direction the car goes through the ranges
+	 * @return the ranges between the floors, in the order the car passes them.
 	 */
-	private Iterator<FloorContext> createFloorContexts(final List<Floor> floors, final Direction carDirection) {
+	private static FloorContext[] createFloorContexts(final List<Floor> floors, final Direction carDirection) {
 		final List<Floor> sortedFloors = new ArrayList<>(floors);
-		Collections.sort(sortedFloors, (arg0, arg1) -> {
-			final Floor floor0 = (Floor) arg0;
-			final Floor floor1 = (Floor) arg1;
+		Collections.sort(sortedFloors, (floor0, floor1) -> {
 			float difference = floor0.getHeight() - floor1.getHeight();
 			if (!carDirection.isUp()) {
 				difference = -difference;
@@ -163,7 +298,7 @@ public class CarController {
 			}
 			return 0;
 		});
-		final List<FloorContext> floorContexts = new LinkedList<>();
+		final FloorContext[] floorContexts = new FloorContext[Math.max(0, sortedFloors.size() - 1)];
 		for (int floorNum = 0; floorNum < sortedFloors.size() - 1; floorNum++) {
 			final Floor previous = sortedFloors.get(floorNum);
 			final Floor next = sortedFloors.get(floorNum + 1);
@@ -173,18 +308,14 @@ public class CarController {
 			} else {
 				successor = sortedFloors.get(floorNum + 2);
 			}
-			final FloorContext set = new FloorContext(previous, next, successor);
-			floorContexts.add(set);
+			floorContexts[floorNum] = new FloorContext(previous, next, successor);
 		}
-		return floorContexts.iterator();
+		return floorContexts;
 	}
 
 	void addDestination(final Floor d, final Direction direction) {
-		final Assignment newAssignment = new Assignment(d, direction);
-		final Assignment baseAssignment = getNearestBase();
-
 		final List<Floor> floorList = this.car.getFloorRequestPanel().getServicedFloors();
-		this.assignments.addAssignment(floorList, baseAssignment, newAssignment);
+		this.assignments.addAssignment(getNearestBase(floorList), this.assignments.ordinal(floorList, d, direction));
 //  LATER: Can we delete the commented out check for DOCKED in addDestination()?
 //    if (car.getState() != Car.State.DOCKED)
 		this.car.setDestination(this.assignments.getCurrentAssignment().getDestination());
@@ -203,8 +334,11 @@ public class CarController {
 		// the doors would close and re-open.
 		// To prevent this, we can remove that assignment and indicate that
 		// we're at the "extreme" position, ready to go the other direction.
+		// Not if riders wait here to go the way we came: they would be left
+		// behind with their call button still lit, and never call again.
 		final Assignment newAssignment = this.assignments.getCurrentAssignment();
-		if (newAssignment != null && newAssignment.getDestination() == location) {
+		if (newAssignment != null && newAssignment.getDestination() == location
+				&& location.getWaitingRiderCount(currentAssignment.getDirection().isUp()) == 0) {
 			this.assignments.removeAssignment(newAssignment);
 			if (currentAssignment.getDirection() == Direction.UP) {
 				topFloor = location;
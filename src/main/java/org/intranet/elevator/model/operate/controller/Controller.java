@@ -29,6 +29,17 @@ public interface Controller {
 	 */
 	void requestCar(Floor newFloor, Direction d);
 
+	/**
+	 * called when a person that has to wait for a car tells where it goes, just
+	 * before the car is requested with {@link #requestCar(Floor, Direction)}.
+	 * Controllers that only answer the up and down buttons can ignore this.
+	 *
+	 * @param from the pickup floor of the person
+	 * @param to   the floor the person goes to
+	 */
+	default void requestDestination(final Floor from, final Floor to) {
+	}
+
 	/**
 	 * called by the {@link org.intranet.elevator.model.operate.Building} to add
 	 * extra cars.
@@ -58,4 +69,12 @@ public interface Controller {
 	 * @param car is the car that has closed doors now.
 	 */
 	void setNextDestination(Car car);
+
+	/**
+	 * Create a controller of the same kind, for another simulation. Simulations
+	 * that run at the same time must not share a controller.
+	 *
+	 * @return a new controller, that still has to be initialized.
+	 */
+	Controller duplicate();
 }
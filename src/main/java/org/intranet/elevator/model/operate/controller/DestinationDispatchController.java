@@ -0,0 +1,262 @@
+package org.intranet.elevator.model.operate.controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.intranet.elevator.model.Car;
+import org.intranet.elevator.model.Floor;
+import org.intranet.sim.event.Event;
+import org.intranet.sim.event.EventQueue;
+
+/**
+ * Destination dispatch: riders tell where they go when they call a car, see
+ * {@link Controller#requestDestination(Floor, Floor)}. The calls that come in
+ * within a short window are assigned together. The calls from one floor in one
+ * direction form a group, and the groups with the most riders choose a car
+ * first. A car costs what {@link CarController#getCost(Floor, Direction)} says
+ * for the pickup, plus a door cycle for each destination of the group it does
+ * not stop at yet, or was not given riders for. The riders of the group then
+ * wait for that car only, see {@link Floor#assignCar(Floor, boolean, Car)}. So
+ * riders that go to the same floors ride together, and the cars make fewer
+ * stops.
+ *
+ * <p>
+ * Calls that come without a destination, like a second press after a full car
+ * left, are assigned right away on the pickup cost alone, and their riders
+ * take the first car going their way.
+ */
+public class DestinationDispatchController implements Controller {
+	/**
+	 * The default time calls are collected before they are assigned, in ms.
+	 */
+	public static final long WINDOW = 1000;
+
+	private final long window;
+	private EventQueue eventQueue;
+	private final List<CarController> carControllers = new ArrayList<>();
+	/**
+	 * The positions of the controllers by {@link Car#getIndex()}, -1 where a car
+	 * has no index.
+	 */
+	private int[] positionByCarIndex = new int[0];
+	/**
+	 * For each car, the destinations by {@link Floor#getIndex()} it was given
+	 * riders for, until it arrives there.
+	 */
+	private final List<BitSet> promised = new ArrayList<>();
+	/**
+	 * The calls of the window that is open, in the order they came.
+	 */
+	private final List<Floor> pendingOrigins = new ArrayList<>();
+	private final List<Floor> pendingDestinations = new ArrayList<>();
+
+	public DestinationDispatchController() {
+		this(WINDOW);
+	}
+
+	/**
+	 * @param window the time calls are collected before they are assigned, in
+	 *               ms.
+	 */
+	public DestinationDispatchController(final long window) {
+		super();
+		if (window < 0) {
+			throw new IllegalArgumentException("The window must not be negative: " + window);
+		}
+		this.window = window;
+	}
+
+	@Override
+	public void initialize(final EventQueue eQ) {
+		this.eventQueue = eQ;
+		this.carControllers.clear();
+		this.positionByCarIndex = new int[0];
+		this.promised.clear();
+		this.pendingOrigins.clear();
+		this.pendingDestinations.clear();
+	}
+
+	@Override
+	public void addCar(final Car car, final float stoppingDistance) {
+		final int position = this.carControllers.size();
+		this.carControllers.add(new CarController(car, stoppingDistance));
+		this.promised.add(new BitSet());
+		final int index = car.getIndex();
+		if (index >= 0) {
+			if (index >= this.positionByCarIndex.length) {
+				final int oldLength = this.positionByCarIndex.length;
+				this.positionByCarIndex = Arrays.copyOf(this.positionByCarIndex,
+						Math.max(index + 1, 2 * oldLength));
+				Arrays.fill(this.positionByCarIndex, oldLength, this.positionByCarIndex.length, -1);
+			}
+			this.positionByCarIndex[index] = position;
+		}
+	}
+
+	@Override
+	public void requestDestination(final Floor from, final Floor to) {
+		if (this.pendingOrigins.isEmpty()) {
+			this.eventQueue.addEvent(new Event(this.eventQueue.getCurrentTime() + this.window) {
+				@Override
+				public void perform() {
+					assignPending();
+				}
+			});
+		}
+		this.pendingOrigins.add(from);
+		this.pendingDestinations.add(to);
+	}
+
+	@Override
+	public void requestCar(final Floor newFloor, final Direction d) {
+		for (int i = 0; i < this.pendingOrigins.size(); i++) {
+			if (this.pendingOrigins.get(i) == newFloor && getDirection(i) == d) {
+				// assigned with the window
+				return;
+			}
+		}
+		final int best = findBestCar(newFloor, d, new Floor[0]);
+		this.carControllers.get(best).addDestination(newFloor, d);
+	}
+
+	private Direction getDirection(final int call) {
+		return this.pendingDestinations.get(call).getFloorNumber() > this.pendingOrigins.get(call).getFloorNumber()
+				? Direction.UP
+				: Direction.DOWN;
+	}
+
+	/**
+	 * Close the window: assign the groups of calls to cars, the largest group
+	 * first.
+	 */
+	private void assignPending() {
+		final List<Floor> origins = new ArrayList<>();
+		final List<Direction> directions = new ArrayList<>();
+		final List<List<Floor>> destinations = new ArrayList<>();
+		final List<Integer> sizes = new ArrayList<>();
+		for (int i = 0; i < this.pendingOrigins.size(); i++) {
+			final Floor origin = this.pendingOrigins.get(i);
+			final Direction direction = getDirection(i);
+			int group = 0;
+			while (group < origins.size() && (origins.get(group) != origin || directions.get(group) != direction)) {
+				group++;
+			}
+			if (group == origins.size()) {
+				origins.add(origin);
+				directions.add(direction);
+				destinations.add(new ArrayList<>());
+				sizes.add(0);
+			}
+			sizes.set(group, sizes.get(group) + 1);
+			final Floor destination = this.pendingDestinations.get(i);
+			if (!destinations.get(group).contains(destination)) {
+				destinations.get(group).add(destination);
+			}
+		}
+		this.pendingOrigins.clear();
+		this.pendingDestinations.clear();
+
+		// the largest groups first, in the order they came for equal sizes
+		final Integer[] order = new Integer[origins.size()];
+		for (int group = 0; group < order.length; group++) {
+			order[group] = group;
+		}
+		Arrays.sort(order, (a, b) -> sizes.get(b) - sizes.get(a));
+		for (final int group : order) {
+			final Floor origin = origins.get(group);
+			final Direction direction = directions.get(group);
+			if (origin.getUnassignedRiderCount(direction.isUp()) == 0) {
+				// a car that was there already took them
+				continue;
+			}
+			final Floor[] groupDestinations = destinations.get(group).toArray(new Floor[0]);
+			final int best = findBestCar(origin, direction, groupDestinations);
+			final CarController controller = this.carControllers.get(best);
+			final BitSet carPromised = this.promised.get(best);
+			for (final Floor destination : groupDestinations) {
+				// before the car is sent, it may be there already
+				origin.assignCar(destination, direction.isUp(), controller.getCar());
+				if (destination.getIndex() >= 0) {
+					carPromised.set(destination.getIndex());
+				}
+			}
+			controller.addDestination(origin, direction);
+		}
+	}
+
+	/**
+	 * @param destinations the floors the riders at the pickup go to
+	 * @return the position of the car with the lowest cost, see the class
+	 *         comment. Ties go to the car that travelled the least.
+	 */
+	private int findBestCar(final Floor floor, final Direction direction, final Floor[] destinations) {
+		int best = -1;
+		CarController c = null;
+		float lowestCost = Float.MAX_VALUE;
+		for (int i = 0; i < this.carControllers.size(); i++) {
+			final CarController controller = this.carControllers.get(i);
+			final BitSet carPromised = this.promised.get(i);
+			float cost = controller.getCost(floor, direction);
+			for (final Floor destination : destinations) {
+				final int index = destination.getIndex();
+				if ((index < 0 || !carPromised.get(index)) && !controller.hasStop(destination, direction)) {
+					cost += destination.getCarEntranceForCar(controller.getCar()).getDoor().getMinimumCycleTime();
+				}
+			}
+			if (cost < lowestCost) {
+				best = i;
+				c = controller;
+				lowestCost = cost;
+			} else if (cost == lowestCost
+					&& controller.getCar().getTotalDistance() < c.getCar().getTotalDistance()) {
+				best = i;
+				c = controller;
+			}
+		}
+		return best;
+	}
+
+	@Override
+	public Controller duplicate() {
+		return new DestinationDispatchController(this.window);
+	}
+
+	@Override
+	public String toString() {
+		return "Destination Dispatch Controller";
+	}
+
+	@Override
+	public boolean arrive(final Car car) {
+		final int position = getPosition(car);
+		final int floorIndex = car.getLocation().getIndex();
+		if (floorIndex >= 0) {
+			this.promised.get(position).clear(floorIndex);
+		}
+		return this.carControllers.get(position).arrive();
+	}
+
+	@Override
+	public void setNextDestination(final Car car) {
+		this.carControllers.get(getPosition(car)).setNextDestination();
+	}
+
+	private int getPosition(final Car car) {
+		final int index = car.getIndex();
+		if (index >= 0 && index < this.positionByCarIndex.length) {
+			final int position = this.positionByCarIndex[index];
+			if (position >= 0 && this.carControllers.get(position).getCar() == car) {
+				return position;
+			}
+		}
+		// cars without index, or with the index of another car
+		for (int position = 0; position < this.carControllers.size(); position++) {
+			if (this.carControllers.get(position).getCar() == car) {
+				return position;
+			}
+		}
+		throw new IllegalArgumentException("Car " + car.getName() + " is not controlled here");
+	}
+}
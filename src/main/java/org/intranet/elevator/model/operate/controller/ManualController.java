@@ -77,6 +77,11 @@ public class ManualController implements Controller {
 
 	}
 
+	@Override
+	public Controller duplicate() {
+		return new ManualController();
+	}
+
 	@Override
 	public String toString() {
 		return "Manual Controller";
@@ -4,28 +4,66 @@
  */
 package org.intranet.elevator.model.operate.controller;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import org.intranet.elevator.model.Car;
 import org.intranet.elevator.model.Floor;
 import org.intranet.sim.event.EventQueue;
 
 /**
+ * Sends each hall call to the car with the lowest cost. With many cars, the
+ * costs are computed in parallel; the car picked is the same either way.
+ *
  * @author Neil McKellar and Chris Dailey
  */
 public class MetaController implements Controller {
-	private final List<CarController> carControllers = new LinkedList<>();
+	/**
+	 * The default number of cars from which costs are computed in parallel.
+	 */
+	public static final int PARALLEL_CARS = 32;
+
+	private final List<CarController> carControllers = new ArrayList<>();
+	/**
+	 * The controllers by {@link Car#getIndex()}, null where a car has no index.
+	 */
+	private CarController[] byCarIndex = new CarController[0];
+	private final int parallelCars;
+	private float[] costs = new float[0];
+
+	public MetaController() {
+		this(PARALLEL_CARS);
+	}
+
+	/**
+	 * @param parallelCars the number of cars from which the costs of a hall call
+	 *                     are computed in parallel, {@link Integer#MAX_VALUE} for
+	 *                     never.
+	 */
+	public MetaController(final int parallelCars) {
+		super();
+		this.parallelCars = parallelCars;
+	}
 
 	@Override
 	public void initialize(final EventQueue eQ) {
 		this.carControllers.clear();
+		this.byCarIndex = new CarController[0];
 	}
 
 	@Override
 	public void addCar(final Car car, final float stoppingDistance) {
 		final CarController controller = new CarController(car, stoppingDistance);
 		this.carControllers.add(controller);
+		final int index = car.getIndex();
+		if (index >= 0) {
+			if (index >= this.byCarIndex.length) {
+				this.byCarIndex = Arrays.copyOf(this.byCarIndex, Math.max(index + 1, 2 * this.byCarIndex.length));
+			}
+			this.byCarIndex[index] = controller;
+		}
 	}
 
 	@Override
@@ -36,15 +74,36 @@ public class MetaController implements Controller {
 
 	private CarController findBestCar(final Floor floor, final Direction direction) {
 		// if only one car, duh
-		if (this.carControllers.size() == 1) {
+		final int count = this.carControllers.size();
+		if (count == 1) {
 			return this.carControllers.get(0);
 		}
 
+		if (this.costs.length < count) {
+			this.costs = new float[count];
+		}
+		final float[] carCosts = this.costs;
+		if (count >= this.parallelCars) {
+			// Bring the caches of the cars up to date first, so getCost only reads
+			// the cars and their assignments while the costs are computed.
+			for (final CarController controller : this.carControllers) {
+				controller.prepareCost();
+			}
+			IntStream.range(0, count).parallel()
+					.forEach(i -> carCosts[i] = this.carControllers.get(i).getCost(floor, direction));
+		} else {
+			for (int i = 0; i < count; i++) {
+				carCosts[i] = this.carControllers.get(i).getCost(floor, direction);
+			}
+		}
+
+		// The lowest cost in the order the cars were added, so the choice does not
+		// depend on how the costs were computed.
 		CarController c = null;
 		float lowestCost = Float.MAX_VALUE;
-		for (final Object element : this.carControllers) {
-			final CarController controller = (CarController) element;
-			final float cost = controller.getCost(floor, direction);
+		for (int i = 0; i < count; i++) {
+			final CarController controller = this.carControllers.get(i);
+			final float cost = carCosts[i];
 			if (cost < lowestCost) {
 				c = controller;
 				lowestCost = cost;
@@ -61,6 +120,11 @@ public class MetaController implements Controller {
 		return c;
 	}
 
+	@Override
+	public Controller duplicate() {
+		return new MetaController(this.parallelCars);
+	}
+
 	@Override
 	public String toString() {
 		return "Default MetaController";
@@ -79,9 +143,16 @@ public class MetaController implements Controller {
 	}
 
 	private CarController getController(final Car car) {
+		final int index = car.getIndex();
+		if (index >= 0 && index < this.byCarIndex.length) {
+			final CarController controller = this.byCarIndex[index];
+			if (controller != null && controller.getCar() == car) {
+				return controller;
+			}
+		}
+		// cars without index, or with the index of another car
 		CarController c = null;
-		for (final Object element : this.carControllers) {
-			final CarController controller = (CarController) element;
+		for (final CarController controller : this.carControllers) {
 			if (controller.getCar() == car) {
 				c = controller;
 			}
@@ -87,6 +87,11 @@ public class SimpleController implements Controller {
 		car.setDestination(nextFloor);
 	}
 
+	@Override
+	public Controller duplicate() {
+		return new SimpleController();
+	}
+
 	@Override
 	public String toString() {
 		return "SimpleController";
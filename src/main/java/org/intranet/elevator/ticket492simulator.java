@@ -107,7 +107,7 @@ public class ticket492simulator extends Simulator {
 
 	@Override
 	public Simulator duplicate() {
-		return new UpToFourThenDownSimulator(this.the_controllers);
+		return new ticket492simulator(duplicateControllers(this.the_controllers));
 	}
 
 	@Override
@@ -0,0 +1,44 @@
+package org.intranet.elevator.traffic;
+
+import org.intranet.elevator.model.Floor;
+
+/**
+ * The riders that arrive in a building, one at a time in order of arrival
+ * time. Only the current arrival is known, so a long day of traffic needs no
+ * memory per rider in the event queue. See {@link ArrivalScheduler}.
+ */
+public interface ArrivalProcess {
+	/**
+	 * Move to the next arrival. Must be called before the first one, too.
+	 *
+	 * @return false if there are no more arrivals.
+	 */
+	boolean next();
+
+	/**
+	 * @return time at which the current rider arrives. Never before the time of
+	 *         the previous arrival.
+	 */
+	long getTime();
+
+	/**
+	 * @return the row of the current rider in the person statistics.
+	 */
+	int getIndex();
+
+	/**
+	 * @return floor where the current rider arrives.
+	 */
+	Floor getStartingFloor();
+
+	/**
+	 * @return floor the current rider wants to go to.
+	 */
+	Floor getDestination();
+
+	/**
+	 * @return the number of riders of the whole process, or -1 if not known
+	 *         beforehand.
+	 */
+	int getRiderCount();
+}
@@ -0,0 +1,88 @@
+package org.intranet.elevator.traffic;
+
+import org.intranet.elevator.model.Floor;
+import org.intranet.elevator.model.operate.Building;
+import org.intranet.elevator.model.operate.Person;
+import org.intranet.sim.event.Event;
+import org.intranet.sim.event.EventQueue;
+
+/**
+ * Puts the riders of an {@link ArrivalProcess} in a building. Only the event
+ * for the next arrival is in the queue; its {@link Person} is created when it
+ * happens. The arrival events go ahead of other events at the same time, see
+ * {@link EventQueue#addEventAhead(Event)}, so the simulation is the same as
+ * when all arrivals are put in the queue at the start.
+ */
+public final class ArrivalScheduler {
+	private final Building building;
+	private final EventQueue eventQueue;
+	private final ArrivalProcess arrivals;
+	private final boolean leaveAtDestination;
+
+	private final class ArrivalEvent extends Event {
+		private final int index;
+
+		private ArrivalEvent() {
+			super(ArrivalScheduler.this.arrivals.getTime());
+			this.index = ArrivalScheduler.this.arrivals.getIndex();
+		}
+
+		@Override
+		public void perform() {
+			final ArrivalProcess process = ArrivalScheduler.this.arrivals;
+			final Person person = ArrivalScheduler.this.building.createPerson(process.getStartingFloor(),
+					this.index);
+			final Floor destination = process.getDestination();
+			person.setLeaveAtDestination(ArrivalScheduler.this.leaveAtDestination);
+			// read the current arrival before moving on to the next one
+			scheduleNext();
+			person.setDestination(destination);
+		}
+	}
+
+	private ArrivalScheduler(final Building building, final EventQueue eventQueue, final ArrivalProcess arrivals,
+			final boolean leaveAtDestination) {
+		super();
+		this.building = building;
+		this.eventQueue = eventQueue;
+		this.arrivals = arrivals;
+		this.leaveAtDestination = leaveAtDestination;
+	}
+
+	/**
+	 * Start putting the riders in the building. If the number of riders is known,
+	 * the person statistics get a row for each of them right away.
+	 *
+	 * @param building   the building
+	 * @param eventQueue the event queue of the building
+	 * @param arrivals   the riders. Used from the event queue from now on.
+	 */
+	public static void start(final Building building, final EventQueue eventQueue, final ArrivalProcess arrivals) {
+		start(building, eventQueue, arrivals, false);
+	}
+
+	/**
+	 * Start putting the riders in the building. If the number of riders is known,
+	 * the person statistics get a row for each of them right away.
+	 *
+	 * @param building           the building
+	 * @param eventQueue         the event queue of the building
+	 * @param arrivals           the riders. Used from the event queue from now on.
+	 * @param leaveAtDestination true if the riders leave the building at their
+	 *                           destination, see
+	 *                           {@link Person#setLeaveAtDestination(boolean)}.
+	 */
+	public static void start(final Building building, final EventQueue eventQueue, final ArrivalProcess arrivals,
+			final boolean leaveAtDestination) {
+		if (arrivals.getRiderCount() > 0) {
+			building.reservePersonRows(arrivals.getRiderCount());
+		}
+		new ArrivalScheduler(building, eventQueue, arrivals, leaveAtDestination).scheduleNext();
+	}
+
+	private void scheduleNext() {
+		if (this.arrivals.next()) {
+			this.eventQueue.addEventAhead(new ArrivalEvent());
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package org.intranet.elevator.traffic;
+
+import org.intranet.elevator.model.Floor;
+import org.intranet.elevator.model.operate.Building;
+
+/**
+ * Arrivals that are all drawn beforehand, in the order of the statistics rows,
+ * and are played out in order of time. Only primitive arrays are kept, about 20
+ * bytes for a rider. Riders that arrive at the same time arrive in the order of
+ * their rows.
+ */
+public final class DrawnArrivals implements ArrivalProcess {
+	private final Building building;
+	private final long[] times;
+	private final int[] startingFloors;
+	private final int[] destinations;
+	private int count;
+	/**
+	 * The rows in order of time. Sorted when the first arrival is asked for.
+	 */
+	private int[] order;
+	private int position = -1;
+	private int current;
+
+	/**
+	 * @param building the building with the floors
+	 * @param capacity the number of riders that will be added
+	 */
+	public DrawnArrivals(final Building building, final int capacity) {
+		super();
+		this.building = building;
+		this.times = new long[capacity];
+		this.startingFloors = new int[capacity];
+		this.destinations = new int[capacity];
+	}
+
+	/**
+	 * Add the rider of the next row.
+	 *
+	 * @param time          arrival time
+	 * @param startingFloor index of the floor in the building
+	 * @param destination   index of the floor in the building
+	 */
+	public void add(final long time, final int startingFloor, final int destination) {
+		if (this.order != null) {
+			throw new IllegalStateException("Arrivals have already started");
+		}
+		if (this.count == this.times.length) {
+			throw new IllegalStateException("Only room for " + this.times.length + " riders");
+		}
+		if (time < 0) {
+			throw new IllegalArgumentException("Arrival time must not be negative: " + time);
+		}
+		this.times[this.count] = time;
+		this.startingFloors[this.count] = startingFloor;
+		this.destinations[this.count] = destination;
+		this.count++;
+	}
+
+	private int[] sortByTime() {
+		int[] rows = new int[this.count];
+		for (int i = 0; i < rows.length; i++) {
+			rows[i] = i;
+		}
+		// bottom-up merge sort, which is stable: equal times stay in row order
+		int[] merged = new int[this.count];
+		for (int width = 1; width < rows.length; width *= 2) {
+			for (int low = 0; low < rows.length; low += 2 * width) {
+				final int middle = Math.min(low + width, rows.length);
+				final int high = Math.min(low + 2 * width, rows.length);
+				int left = low;
+				int right = middle;
+				for (int k = low; k < high; k++) {
+					if (right >= high || (left < middle && this.times[rows[left]] <= this.times[rows[right]])) {
+						merged[k] = rows[left++];
+					} else {
+						merged[k] = rows[right++];
+					}
+				}
+			}
+			final int[] swap = rows;
+			rows = merged;
+			merged = swap;
+		}
+		return rows;
+	}
+
+	@Override
+	public boolean next() {
+		if (this.order == null) {
+			this.order = sortByTime();
+		}
+		if (this.position + 1 >= this.count) {
+			this.position = this.count;
+			return false;
+		}
+		this.position++;
+		this.current = this.order[this.position];
+		return true;
+	}
+
+	@Override
+	public long getTime() {
+		return this.times[this.current];
+	}
+
+	@Override
+	public int getIndex() {
+		return this.current;
+	}
+
+	@Override
+	public Floor getStartingFloor() {
+		return this.building.getFloor(this.startingFloors[this.current]);
+	}
+
+	@Override
+	public Floor getDestination() {
+		return this.building.getFloor(this.destinations[this.current]);
+	}
+
+	@Override
+	public int getRiderCount() {
+		return this.count;
+	}
+}
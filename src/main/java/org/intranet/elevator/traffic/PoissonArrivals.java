@@ -0,0 +1,89 @@
+package org.intranet.elevator.traffic;
+
+import java.util.Random;
+
+import org.intranet.elevator.model.Floor;
+import org.intranet.elevator.model.operate.Building;
+
+/**
+ * Arrivals of a Poisson process with the rates of a {@link TrafficProfile}.
+ * The next arrival is drawn when it is asked for, by thinning: candidates come
+ * at the highest rate of the profile, and a candidate is kept with the chance
+ * the rate at its time is of that highest rate. Memory does not depend on the
+ * number of riders.
+ */
+public final class PoissonArrivals implements ArrivalProcess {
+	private final Building building;
+	private final TrafficProfile profile;
+	private final Random random;
+	private final double maxRate;
+	private final double duration;
+	private double time;
+	private int index = -1;
+	private int pair;
+
+	/**
+	 * @param building the building with the floors of the profile
+	 * @param profile  the rates
+	 * @param random   source of the arrivals
+	 */
+	public PoissonArrivals(final Building building, final TrafficProfile profile, final Random random) {
+		super();
+		if (building.getNumFloors() < profile.getFloorCount()) {
+			throw new IllegalArgumentException("Traffic profile needs " + profile.getFloorCount()
+					+ " floors but the building has " + building.getNumFloors());
+		}
+		this.building = building;
+		this.profile = profile;
+		this.random = random;
+		this.maxRate = profile.getMaxRate();
+		this.duration = profile.getDuration();
+	}
+
+	@Override
+	public boolean next() {
+		if (this.maxRate <= 0) {
+			return false;
+		}
+		while (true) {
+			// exponential gap, 1 - nextDouble() is never 0
+			this.time -= Math.log(1 - this.random.nextDouble()) / this.maxRate;
+			if (this.time >= this.duration) {
+				this.time = this.duration;
+				return false;
+			}
+			final int interval = (int) (this.time / this.profile.getIntervalLength());
+			final double rate = this.profile.getRate(interval);
+			if (this.random.nextDouble() * this.maxRate < rate) {
+				this.pair = this.profile.pickPair(interval, this.random.nextDouble());
+				this.index++;
+				return true;
+			}
+		}
+	}
+
+	@Override
+	public long getTime() {
+		return (long) this.time;
+	}
+
+	@Override
+	public int getIndex() {
+		return this.index;
+	}
+
+	@Override
+	public Floor getStartingFloor() {
+		return this.building.getFloor(this.profile.getOrigin(this.pair));
+	}
+
+	@Override
+	public Floor getDestination() {
+		return this.building.getFloor(this.profile.getDestination(this.pair));
+	}
+
+	@Override
+	public int getRiderCount() {
+		return -1;
+	}
+}
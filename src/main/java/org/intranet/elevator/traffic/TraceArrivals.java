@@ -0,0 +1,267 @@
+package org.intranet.elevator.traffic;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.intranet.elevator.model.Floor;
+import org.intranet.elevator.model.operate.Building;
+
+/**
+ * Arrivals replayed from a file of recorded trips, in order of time. The file
+ * is memory mapped one window at a time, so only the window and the current
+ * trip are in memory, whatever the size of the file. Two formats:
+ * <ul>
+ * <li>A file whose name ends in ".csv" has a line "time,origin,destination"
+ * per trip. Lines that do not start with a digit, like a header, are
+ * skipped.</li>
+ * <li>Any other file has a binary record of 16 bytes per trip: the time as a
+ * big-endian long, then the origin and destination as big-endian ints.</li>
+ * </ul>
+ * Times are in ms from the start of the simulation, floors are indices in the
+ * building, the ground floor is 0. A trip must go to another floor. The file is
+ * closed after the last trip.
+ */
+public final class TraceArrivals implements ArrivalProcess, Closeable {
+	private static final int RECORD_SIZE = 16;
+	private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+	private final Building building;
+	private final String name;
+	private final boolean csv;
+	private final FileChannel channel;
+	private final long size;
+	private final int windowSize;
+	private MappedByteBuffer window;
+	private long windowStart;
+	/**
+	 * Trip number in the binary format, line number in csv.
+	 */
+	private long record;
+	/**
+	 * Where parsing the current csv line is.
+	 */
+	private int parsePosition;
+	private int index = -1;
+	private long time;
+	private int origin;
+	private int destination;
+
+	/**
+	 * @param building the building with the floors of the trips
+	 * @param file     the trips, see the class comment for the format.
+	 * @throws IOException if the file can not be opened.
+	 */
+	public TraceArrivals(final Building building, final File file) throws IOException {
+		this(building, file, WINDOW_SIZE);
+	}
+
+	TraceArrivals(final Building building, final File file, final int windowSize) throws IOException {
+		super();
+		this.building = building;
+		this.name = file.getName();
+		this.csv = this.name.toLowerCase().endsWith(".csv");
+		this.windowSize = this.csv ? windowSize : windowSize - windowSize % RECORD_SIZE;
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		this.size = this.channel.size();
+		if (!this.csv && this.size % RECORD_SIZE != 0) {
+			this.channel.close();
+			throw new IllegalArgumentException(
+					"Trace " + this.name + " has " + this.size + " bytes, not a multiple of " + RECORD_SIZE);
+		}
+		map(0);
+	}
+
+	private void map(final long start) throws IOException {
+		this.windowStart = start;
+		this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, start,
+				Math.min(this.windowSize, this.size - start));
+		this.window.order(ByteOrder.BIG_ENDIAN);
+	}
+
+	private boolean isLastWindow() {
+		return this.windowStart + this.window.limit() == this.size;
+	}
+
+	@Override
+	public boolean next() {
+		if (!this.channel.isOpen()) {
+			return false;
+		}
+		final long previous = this.time;
+		final boolean found;
+		try {
+			found = this.csv ? readLine() : readRecord();
+		} catch (final IOException e) {
+			throw new IllegalStateException("Can't read trace " + this.name, e);
+		}
+		if (!found) {
+			close();
+			return false;
+		}
+		if (this.time < previous) {
+			throw new IllegalArgumentException(
+					"Trace " + this.name + " is not sorted by time at " + (this.csv ? "line " : "trip ") + this.record);
+		}
+		if (this.origin == this.destination) {
+			throw new IllegalArgumentException("Trace " + this.name + " has a trip to its own floor at "
+					+ (this.csv ? "line " : "trip ") + this.record);
+		}
+		if (this.origin >= this.building.getNumFloors() || this.destination >= this.building.getNumFloors()) {
+			throw new IllegalArgumentException("Trace " + this.name + " has floors that the building does not have at "
+					+ (this.csv ? "line " : "trip ") + this.record);
+		}
+		this.index++;
+		return true;
+	}
+
+	private boolean readRecord() throws IOException {
+		if (!this.window.hasRemaining()) {
+			if (isLastWindow()) {
+				return false;
+			}
+			map(this.windowStart + this.window.limit());
+		}
+		this.record++;
+		this.time = this.window.getLong();
+		this.origin = this.window.getInt();
+		this.destination = this.window.getInt();
+		if (this.time < 0 || this.origin < 0 || this.destination < 0) {
+			throw new IllegalArgumentException("Trace " + this.name + " has a negative value at trip " + this.record);
+		}
+		return true;
+	}
+
+	private boolean readLine() throws IOException {
+		while (true) {
+			final int start = this.window.position();
+			final int limit = this.window.limit();
+			int end = start;
+			while (end < limit && this.window.get(end) != '\n') {
+				end++;
+			}
+			if (end == limit && !isLastWindow()) {
+				if (start == 0) {
+					throw new IllegalArgumentException("Trace " + this.name + " has a line longer than "
+							+ this.windowSize + " bytes after line " + this.record);
+				}
+				// the line continues after the window, start the next one with it
+				map(this.windowStart + start);
+				continue;
+			}
+			if (start == limit) {
+				return false;
+			}
+			this.window.position(end == limit ? end : end + 1);
+			this.record++;
+			if (parseLine(start, end)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * @return false if the line does not start with a digit.
+	 */
+	private boolean parseLine(final int start, final int end) {
+		this.parsePosition = skipSpaces(start, end);
+		if (this.parsePosition == end || !isDigit(this.window.get(this.parsePosition))) {
+			return false;
+		}
+		this.time = parseNumber(end, Long.MAX_VALUE, true);
+		this.origin = (int) parseNumber(end, Integer.MAX_VALUE, true);
+		this.destination = (int) parseNumber(end, Integer.MAX_VALUE, false);
+		if (this.parsePosition != end) {
+			throw badLine();
+		}
+		return true;
+	}
+
+	/**
+	 * Parse the number at {@link #parsePosition}, and the ',' after it.
+	 */
+	private long parseNumber(final int end, final long max, final boolean comma) {
+		int position = skipSpaces(this.parsePosition, end);
+		if (position == end || !isDigit(this.window.get(position))) {
+			throw badLine();
+		}
+		long value = 0;
+		while (position < end && isDigit(this.window.get(position))) {
+			final int digit = this.window.get(position++) - '0';
+			if (value > (max - digit) / 10) {
+				throw badLine();
+			}
+			value = value * 10 + digit;
+		}
+		position = skipSpaces(position, end);
+		if (comma) {
+			if (position == end || this.window.get(position) != ',') {
+				throw badLine();
+			}
+			position++;
+		}
+		this.parsePosition = position;
+		return value;
+	}
+
+	private int skipSpaces(final int start, final int end) {
+		int position = start;
+		while (position < end) {
+			final byte b = this.window.get(position);
+			if (b != ' ' && b != '\t' && b != '\r') {
+				break;
+			}
+			position++;
+		}
+		return position;
+	}
+
+	private static boolean isDigit(final byte b) {
+		return b >= '0' && b <= '9';
+	}
+
+	private IllegalArgumentException badLine() {
+		return new IllegalArgumentException(
+				"Trace " + this.name + " line " + this.record + " is not 'time,origin,destination'");
+	}
+
+	@Override
+	public long getTime() {
+		return this.time;
+	}
+
+	@Override
+	public int getIndex() {
+		return this.index;
+	}
+
+	@Override
+	public Floor getStartingFloor() {
+		return this.building.getFloor(this.origin);
+	}
+
+	@Override
+	public Floor getDestination() {
+		return this.building.getFloor(this.destination);
+	}
+
+	@Override
+	public int getRiderCount() {
+		// not known for csv, and rows for a whole binary trace would take memory
+		return -1;
+	}
+
+	@Override
+	public void close() {
+		try {
+			this.channel.close();
+		} catch (final IOException e) {
+			throw new IllegalStateException("Can't close trace " + this.name, e);
+		}
+		this.window = null;
+	}
+}
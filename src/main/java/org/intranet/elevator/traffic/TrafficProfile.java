@@ -0,0 +1,267 @@
+package org.intranet.elevator.traffic;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Rates of trips between floors, for each interval of the day. Read from a
+ * text file that only lists the origin/destination pairs that have trips, so a
+ * day of 15 minute intervals for a tall building stays small:
+ *
+ * <pre>
+ * # length of an interval, in minutes
+ * interval 15
+ * # optional, the number of intervals. Default is up to the last one listed.
+ * intervals 96
+ * # interval origin destination trips-per-hour
+ * 32 0 7 120
+ * 32 0 8 95.5
+ * </pre>
+ *
+ * Intervals count from 0 at the start of the simulation. Floors are indices in
+ * the building, the ground floor is 0. Lines of the same interval and pair add
+ * up. Everything after a '#' is a comment.
+ *
+ * <p>
+ * The pairs of an interval are kept together, with the cumulative rate, so
+ * picking the pair of a trip is a binary search.
+ */
+public final class TrafficProfile {
+	private final long intervalLength;
+	private final int intervalCount;
+	/**
+	 * Pairs of interval i are at [start[i], start[i+1]).
+	 */
+	private final int[] start;
+	private final int[] origins;
+	private final int[] destinations;
+	/**
+	 * Cumulative rate within the interval, in trips per ms.
+	 */
+	private final double[] cumulative;
+	private final int floorCount;
+
+	private TrafficProfile(final long intervalLength, final int intervalCount, final int[] start,
+			final int[] origins, final int[] destinations, final double[] cumulative) {
+		this.intervalLength = intervalLength;
+		this.intervalCount = intervalCount;
+		this.start = start;
+		this.origins = origins;
+		this.destinations = destinations;
+		this.cumulative = cumulative;
+		int max = -1;
+		for (int i = 0; i < origins.length; i++) {
+			max = Math.max(max, Math.max(origins[i], destinations[i]));
+		}
+		this.floorCount = max + 1;
+	}
+
+	/**
+	 * @param file the profile file, see the class comment for the format.
+	 * @return the profile.
+	 * @throws IOException              if the file can not be read.
+	 * @throws IllegalArgumentException if the file is not a valid profile.
+	 */
+	public static TrafficProfile read(final File file) throws IOException {
+		try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+			return read(reader);
+		}
+	}
+
+	/**
+	 * @param reader the profile, see the class comment for the format.
+	 * @return the profile.
+	 * @throws IOException              if the reader fails.
+	 * @throws IllegalArgumentException if the text is not a valid profile.
+	 */
+	public static TrafficProfile read(final Reader reader) throws IOException {
+		final BufferedReader lines = new BufferedReader(reader);
+		long interval = -1;
+		int intervals = -1;
+		int size = 0;
+		int[] intervalOf = new int[64];
+		int[] origins = new int[64];
+		int[] destinations = new int[64];
+		double[] rates = new double[64];
+		int lineNumber = 0;
+		for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+			lineNumber++;
+			final int comment = line.indexOf('#');
+			final String text = (comment < 0 ? line : line.substring(0, comment)).trim();
+			if (text.isEmpty()) {
+				continue;
+			}
+			final String[] fields = text.split("\\s+");
+			try {
+				if (fields[0].equals("interval") && fields.length == 2) {
+					interval = Long.parseLong(fields[1]) * 60 * 1000;
+					if (interval <= 0) {
+						throw new IllegalArgumentException("interval must be positive");
+					}
+				} else if (fields[0].equals("intervals") && fields.length == 2) {
+					intervals = Integer.parseInt(fields[1]);
+				} else if (fields.length == 4) {
+					if (size == origins.length) {
+						intervalOf = Arrays.copyOf(intervalOf, size * 2);
+						origins = Arrays.copyOf(origins, size * 2);
+						destinations = Arrays.copyOf(destinations, size * 2);
+						rates = Arrays.copyOf(rates, size * 2);
+					}
+					intervalOf[size] = Integer.parseInt(fields[0]);
+					origins[size] = Integer.parseInt(fields[1]);
+					destinations[size] = Integer.parseInt(fields[2]);
+					rates[size] = Double.parseDouble(fields[3]);
+					if (intervalOf[size] < 0 || origins[size] < 0 || destinations[size] < 0) {
+						throw new IllegalArgumentException("interval and floors must not be negative");
+					}
+					if (origins[size] == destinations[size]) {
+						throw new IllegalArgumentException("origin and destination must differ");
+					}
+					if (!(rates[size] >= 0) || Double.isInfinite(rates[size])) {
+						throw new IllegalArgumentException("rate must be a number, not negative");
+					}
+					size++;
+				} else {
+					throw new IllegalArgumentException("expected 'interval origin destination rate'");
+				}
+			} catch (final IllegalArgumentException e) {
+				throw new IllegalArgumentException("Traffic profile line " + lineNumber + ": " + e.getMessage(), e);
+			}
+		}
+		if (interval < 0) {
+			throw new IllegalArgumentException("Traffic profile has no interval length");
+		}
+		int last = -1;
+		for (int i = 0; i < size; i++) {
+			last = Math.max(last, intervalOf[i]);
+		}
+		if (intervals < 0) {
+			intervals = last + 1;
+		} else if (last >= intervals) {
+			throw new IllegalArgumentException("Traffic profile has rates for interval " + last + " but only "
+					+ intervals + " intervals");
+		}
+
+		// counting sort by interval, keeping the order of the file within one
+		final int[] start = new int[intervals + 1];
+		for (int i = 0; i < size; i++) {
+			start[intervalOf[i] + 1]++;
+		}
+		for (int i = 0; i < intervals; i++) {
+			start[i + 1] += start[i];
+		}
+		final int[] next = Arrays.copyOf(start, intervals);
+		final int[] sortedOrigins = new int[size];
+		final int[] sortedDestinations = new int[size];
+		final double[] sortedRates = new double[size];
+		for (int i = 0; i < size; i++) {
+			final int to = next[intervalOf[i]]++;
+			sortedOrigins[to] = origins[i];
+			sortedDestinations[to] = destinations[i];
+			sortedRates[to] = rates[i] / 3600 / 1000;
+		}
+		for (int i = 0; i < intervals; i++) {
+			for (int j = start[i] + 1; j < start[i + 1]; j++) {
+				sortedRates[j] += sortedRates[j - 1];
+			}
+		}
+		return new TrafficProfile(interval, intervals, start, sortedOrigins, sortedDestinations, sortedRates);
+	}
+
+	/**
+	 * @return the length of an interval, in ms.
+	 */
+	public long getIntervalLength() {
+		return this.intervalLength;
+	}
+
+	/**
+	 * @return the number of intervals.
+	 */
+	public int getIntervalCount() {
+		return this.intervalCount;
+	}
+
+	/**
+	 * @return the time at which the last interval ends, in ms.
+	 */
+	public long getDuration() {
+		return this.intervalLength * this.intervalCount;
+	}
+
+	/**
+	 * @return the number of floors the building needs at least.
+	 */
+	public int getFloorCount() {
+		return this.floorCount;
+	}
+
+	/**
+	 * @param interval the interval, from 0
+	 * @return the rate of all trips in the interval, in trips per ms.
+	 */
+	public double getRate(final int interval) {
+		final int end = this.start[interval + 1];
+		return end == this.start[interval] ? 0 : this.cumulative[end - 1];
+	}
+
+	/**
+	 * @return the highest rate of all trips in an interval, in trips per ms.
+	 */
+	public double getMaxRate() {
+		double max = 0;
+		for (int i = 0; i < this.intervalCount; i++) {
+			max = Math.max(max, getRate(i));
+		}
+		return max;
+	}
+
+	/**
+	 * Pick an origin/destination pair of the interval, with a chance
+	 * proportional to its rate.
+	 *
+	 * @param interval the interval, from 0. Must have a rate &gt; 0.
+	 * @param fraction uniform in [0, 1)
+	 * @return the position of the pair, see {@link #getOrigin(int)} and
+	 *         {@link #getDestination(int)}.
+	 */
+	public int pickPair(final int interval, final double fraction) {
+		final int from = this.start[interval];
+		final int to = this.start[interval + 1];
+		final double target = fraction * this.cumulative[to - 1];
+		int low = from;
+		int high = to - 1;
+		// the first pair with a cumulative rate above the target
+		while (low < high) {
+			final int middle = (low + high) >>> 1;
+			if (this.cumulative[middle] > target) {
+				high = middle;
+			} else {
+				low = middle + 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @param pair see {@link #pickPair(int, double)}
+	 * @return the floor index where the trip starts.
+	 */
+	public int getOrigin(final int pair) {
+		return this.origins[pair];
+	}
+
+	/**
+	 * @param pair see {@link #pickPair(int, double)}
+	 * @return the floor index where the trip goes to.
+	 */
+	public int getDestination(final int pair) {
+		return this.destinations[pair];
+	}
+}
@@ -0,0 +1,74 @@
+package org.intranet.sim;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+/**
+ * Copy-on-write list of listeners. Adding and removing a listener copies the
+ * array, notifying walks the array from {@link #getListeners()} without
+ * allocating anything. A notification goes to the listeners at the time it
+ * started: listeners may add or remove listeners while being notified, and
+ * another thread may do so at any time.
+ *
+ * @param <L> the listener type
+ */
+public final class ListenerList<L> {
+	private final L[] empty;
+	private volatile L[] listeners;
+
+	/**
+	 * @param type the listener type, to create the arrays with
+	 */
+	@SuppressWarnings("unchecked")
+	public ListenerList(final Class<L> type) {
+		super();
+		this.empty = (L[]) Array.newInstance(type, 0);
+		this.listeners = this.empty;
+	}
+
+	/**
+	 * Add the listener at the end. A listener that is added twice is notified
+	 * twice.
+	 *
+	 * @param listener the listener
+	 */
+	public synchronized void add(final L listener) {
+		final L[] old = this.listeners;
+		final L[] copy = Arrays.copyOf(old, old.length + 1);
+		copy[old.length] = listener;
+		this.listeners = copy;
+	}
+
+	/**
+	 * Remove the first occurrence of the listener, if any.
+	 *
+	 * @param listener the listener
+	 */
+	public synchronized void remove(final L listener) {
+		final L[] old = this.listeners;
+		for (int i = 0; i < old.length; i++) {
+			if (old[i].equals(listener)) {
+				if (old.length == 1) {
+					this.listeners = this.empty;
+					return;
+				}
+				final L[] copy = Arrays.copyOf(old, old.length - 1);
+				System.arraycopy(old, i + 1, copy, i, old.length - i - 1);
+				this.listeners = copy;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return the listeners, in the order they were added. The array is shared
+	 *         and must not be modified.
+	 */
+	public L[] getListeners() {
+		return this.listeners;
+	}
+
+	public boolean isEmpty() {
+		return this.listeners.length == 0;
+	}
+}
@@ -24,4 +24,12 @@ public abstract class Model extends ModelElement {
 	 * @return a list of Tables
 	 */
 	public abstract List<Table> getStatistics();
+
+	/**
+	 * @return true if nothing in the model waits for something to happen. This is
+	 *         true by default.
+	 */
+	public boolean isQuiescent() {
+		return true;
+	}
 }
\ No newline at end of file
@@ -12,12 +12,14 @@ import java.util.prefs.Preferences;
 import org.intranet.elevator.model.operate.controller.Controller;
 import org.intranet.sim.clock.Clock;
 import org.intranet.sim.clock.ClockFactory;
+import org.intranet.sim.event.Event;
 import org.intranet.sim.event.EventQueue;
 import org.intranet.ui.FloatParameter;
 import org.intranet.ui.IntegerParameter;
 import org.intranet.ui.LongParameter;
 import org.intranet.ui.Parameter;
 import org.intranet.ui.SingleValueParameter;
+import org.intranet.ui.StringParameter;
 
 /**
  * @author Neil McKellar and Chris Dailey
@@ -31,27 +33,52 @@ public abstract class Simulator {
 	private Clock clock;
 	protected List<Parameter> parameters = new LinkedList<>();
 	private final List<Object> listeners = new LinkedList<>();
-	private final Clock.FeedbackListener cc = time -> {
-		synchronized (getModel()) {
-			try {
-				if (Simulator.this.eventQueue.processEventsUpTo(time)) {
-					for (final Object element : Simulator.this.listeners) {
-						final SimulatorListener l = (SimulatorListener) element;
-						l.modelUpdate(time);
+	private final Clock.FeedbackListener cc = new Clock.FeedbackListener() {
+		@Override
+		public long timeUpdate(final long time) {
+			synchronized (getModel()) {
+				try {
+					if (Simulator.this.eventQueue.processEventsUpTo(time)) {
+						for (final Object element : Simulator.this.listeners) {
+							final SimulatorListener l = (SimulatorListener) element;
+							l.modelUpdate(time);
+						}
 					}
+					// Wouter: removed code that stopped sim after last event.
+					// We never know now when to stop. GOAL may always call
+					// another goto()
+					return time;
+				} catch (final Exception e) {
+					// left in place, this may occur if something is not thread
+					// safe, #1340
+					System.out.println("Warning: Elevator environment unexpected exception in timeUpdate:" + e);
+					e.printStackTrace();
+					return time;
 				}
-				// Wouter: removed code that stopped sim after last event.
-				// We never know now when to stop. GOAL may always call
-				// another goto()
-				return time;
-			} catch (final Exception e) {
-				// left in place, this may occur if something is not thread
-				// safe, #1340
-				System.out.println("Warning: Elevator environment unexpected exception in timeUpdate:" + e);
-				e.printStackTrace();
-				return time;
 			}
 		}
+
+		@Override
+		public long getNextEventTime() {
+			return Simulator.this.eventQueue.getNextEventTime();
+		}
+
+		@Override
+		public boolean isObserved() {
+			return !Simulator.this.listeners.isEmpty();
+		}
+
+		@Override
+		public boolean isQuiescent() {
+			synchronized (getModel()) {
+				return getModel().isQuiescent();
+			}
+		}
+
+		@Override
+		public long getProcessedEventCount() {
+			return Simulator.this.eventQueue.getProcessedEventCount();
+		}
 	};
 
 	public interface SimulatorListener {
@@ -105,6 +132,21 @@ public abstract class Simulator {
 		this.clockFactory = cf;
 		this.eventQueue = new EventQueue();
 		this.clock = this.clockFactory.createClock(this.cc);
+		final Clock newClock = this.clock;
+		this.eventQueue.addListener(new EventQueue.Listener() {
+			@Override
+			public void eventAdded(final Event e) {
+				newClock.eventScheduled(e.getTime());
+			}
+
+			@Override
+			public void eventRemoved(final Event e) {
+			}
+
+			@Override
+			public void eventError(final Exception ex) {
+			}
+		});
 		initializeModel();
 		this.initialized = true;
 	}
@@ -133,8 +175,24 @@ public abstract class Simulator {
 		return this.parameters;
 	}
 
+	/**
+	 * @return a new simulator of the same kind, with its own controllers (see
+	 *         {@link Controller#duplicate()}), that still has to be initialized.
+	 */
 	public abstract Simulator duplicate();
 
+	/**
+	 * @param controllers the controllers to duplicate
+	 * @return a duplicate of each of the given controllers, in the same order.
+	 */
+	protected static List<Controller> duplicateControllers(final List<Controller> controllers) {
+		final List<Controller> duplicates = new ArrayList<>(controllers.size());
+		for (final Controller controller : controllers) {
+			duplicates.add(controller.duplicate());
+		}
+		return duplicates;
+	}
+
 	/**
 	 * get the current controller associated with this Simulator. Added W.Pasman,
 	 * 4nov2010, see #711
@@ -243,7 +301,25 @@ public abstract class Simulator {
 		/**
 		 * Time factor, to speed up the simtime 2^n compared to real time.
 		 */
-		TIMEFACTOR("Time Factor", 0);
+		TIMEFACTOR("Time Factor", 0),
+		/**
+		 * How the real time clock advances: "tick" every 100 ms, "event" to sleep
+		 * until the next event is due, or "shared" to tick on a scheduler shared
+		 * by all simulations instead of a thread per simulation.
+		 */
+		CLOCKMODE("Clock mode", "tick"),
+		/**
+		 * File with the rates of trips between floors during the day, see
+		 * {@link org.intranet.elevator.traffic.TrafficProfile}. The default is a
+		 * sample that comes with the simulator.
+		 */
+		PROFILE("Traffic profile file", "traffic-profile.txt"),
+		/**
+		 * File with recorded trips to replay, see
+		 * {@link org.intranet.elevator.traffic.TraceArrivals}. The default is a
+		 * sample that comes with the simulator.
+		 */
+		TRACE("Trip trace file", "trips.csv");
 
 		private String description;
 		private Object defaultValue;
@@ -300,6 +376,19 @@ public abstract class Simulator {
 
 		}
 
+		/**
+		 * get the default value for this key and put it in a StringParameter . Only
+		 * usable for keys that have String default value. do not use this for
+		 * CONTROLLER or SIMULATION that require a combo box.
+		 *
+		 * @return {@link Parameter} containing default setting for the given key.
+		 * @throws ClassCastException if you apply this to key with non-String default
+		 *                            value.
+		 */
+		public StringParameter getDefaultStringParameter() {
+			return new StringParameter(this, simulatorprefs.get(toString(), (String) this.defaultValue));
+		}
+
 		/**
 		 * get Key with given keyname.
 		 *
@@ -0,0 +1,176 @@
+package org.intranet.sim.batch;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.intranet.sim.Simulator;
+import org.intranet.sim.clock.FastForwardClock;
+import org.intranet.sim.event.Event;
+import org.intranet.sim.event.EventQueue;
+import org.intranet.statistics.Table;
+import org.intranet.ui.Parameter;
+import org.intranet.ui.SingleValueParameter;
+
+/**
+ * Runs a simulation for each of a series of parameter sets, on a pool of
+ * worker threads. Each run gets its own {@link Simulator#duplicate()}, so runs
+ * share nothing and can run at the same time. A run goes as fast as possible
+ * until no event is pending, see {@link FastForwardClock}, or until the end
+ * time if one is set.
+ */
+public class ParameterSweep {
+	private final Simulator prototype;
+	private final int threads;
+	private long endTime = Long.MAX_VALUE;
+
+	/**
+	 * Listener for the results of a sweep. It is called from the worker threads,
+	 * as the runs finish, so not in the order of the parameter sets.
+	 */
+	public interface Listener {
+		/**
+		 * @param params     the parameters of the run
+		 * @param simulator  the simulator of the run, with its final state
+		 * @param statistics the statistics of the run
+		 */
+		void runFinished(List<Parameter> params, Simulator simulator, List<Table> statistics);
+
+		/**
+		 * Called when a run failed. The sweep starts no more runs after this, but
+		 * runs that already started still finish.
+		 *
+		 * @param params the parameters of the run
+		 * @param e      what went wrong
+		 */
+		void runFailed(List<Parameter> params, Exception e);
+	}
+
+	/**
+	 * @param prototype the simulator to duplicate for each run. It is not run
+	 *                  itself.
+	 * @param threads   the number of runs to do at the same time
+	 */
+	public ParameterSweep(final Simulator prototype, final int threads) {
+		super();
+		if (threads < 1) {
+			throw new IllegalArgumentException("Need at least one thread, got " + threads);
+		}
+		this.prototype = prototype;
+		this.threads = threads;
+	}
+
+	/**
+	 * @param prototype the simulator to duplicate for each run
+	 */
+	public ParameterSweep(final Simulator prototype) {
+		this(prototype, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param time the simulation time at which runs stop, even if events are
+	 *             still pending. See {@link FastForwardClock#isTruncated()}. By
+	 *             default runs do not stop before the events run out.
+	 */
+	public void setEndTime(final long time) {
+		this.endTime = time;
+	}
+
+	/**
+	 * Do a run for each of the parameter sets and wait until all are done, or
+	 * until one failed.
+	 *
+	 * @param parameterSets the parameter sets. Parameters are matched to those of
+	 *                      the simulator by description; the simulator keeps its
+	 *                      value for parameters that are not in a set.
+	 * @param listener      gets the result of each run
+	 * @return true if all runs finished, false if one failed.
+	 * @throws InterruptedException if interrupted while waiting for the runs. The
+	 *                              runs that did not start yet are cancelled.
+	 */
+	public boolean run(final Iterator<List<Parameter>> parameterSets, final Listener listener)
+			throws InterruptedException {
+		final AtomicBoolean failed = new AtomicBoolean();
+		final ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+		try {
+			final List<Future<?>> runs = new ArrayList<>();
+			while (parameterSets.hasNext()) {
+				final List<Parameter> params = parameterSets.next();
+				runs.add(pool.submit(() -> {
+					// after a failure, skip the runs that did not start yet
+					if (!failed.get() && !runOnce(params, listener)) {
+						failed.set(true);
+					}
+				}));
+			}
+			for (final Future<?> run : runs) {
+				try {
+					run.get();
+				} catch (final ExecutionException e) {
+					// runOnce reports its own failures, so this is unexpected
+					throw new IllegalStateException("Run failed unexpectedly", e.getCause());
+				}
+			}
+			return !failed.get();
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * @return true if the run finished, false if it failed.
+	 */
+	private boolean runOnce(final List<Parameter> params, final Listener listener) {
+		final Simulator simulator = this.prototype.duplicate();
+		final List<Exception> errors = new ArrayList<>(1);
+		try {
+			setParameters(simulator, params);
+			simulator.initialize(new FastForwardClock.FastForwardClockFactory(this.endTime));
+			// nobody watches these runs, so skip the animation values.
+			simulator.getEventQueue().setInterpolateOnDemand(true);
+			simulator.getEventQueue().addListener(new EventQueue.Listener() {
+				@Override
+				public void eventAdded(final Event e) {
+				}
+
+				@Override
+				public void eventRemoved(final Event e) {
+				}
+
+				@Override
+				public void eventError(final Exception ex) {
+					errors.add(ex);
+				}
+			});
+			simulator.getClock().start();
+		} catch (final Exception e) {
+			errors.add(e);
+		}
+		if (!errors.isEmpty()) {
+			listener.runFailed(params, errors.get(0));
+			return false;
+		}
+		listener.runFinished(params, simulator, simulator.getModel().getStatistics());
+		return true;
+	}
+
+	/**
+	 * Copy the values of the given parameters into the parameters of the
+	 * simulator with the same description.
+	 *
+	 * @param simulator the simulator to update
+	 * @param params    the parameters to copy
+	 */
+	public static void setParameters(final Simulator simulator, final List<Parameter> params) {
+		for (final Parameter parameter : params) {
+			final SingleValueParameter p = (SingleValueParameter) parameter;
+			final SingleValueParameter simParameter = simulator.getParameter(p.getDescription());
+			simParameter.setValueFromUI(p.getUIValue());
+		}
+	}
+}
@@ -51,6 +51,11 @@ public abstract class Clock {
 	}
 
 	public interface FeedbackListener {
+		/**
+		 * Returned by {@link #getNextEventTime()} if the listener can not tell.
+		 */
+		long UNKNOWN = -1;
+
 		/**
 		 * Informs about elapsed time since start
 		 *
@@ -58,6 +63,39 @@ public abstract class Clock {
 		 * @return unknown
 		 */
 		long timeUpdate(long time);
+
+		/**
+		 * @return the simulation time of the next pending event,
+		 *         {@link Long#MAX_VALUE} if nothing is pending, or {@link #UNKNOWN}.
+		 *         Clocks that sleep until the next event need this.
+		 */
+		default long getNextEventTime() {
+			return UNKNOWN;
+		}
+
+		/**
+		 * @return true if someone shows the simulation while it runs, so the clock
+		 *         should also tick when no event is due, to animate.
+		 */
+		default boolean isObserved() {
+			return true;
+		}
+
+		/**
+		 * @return true if the model is at rest, so nothing is left to happen once no
+		 *         event is pending. False means the model still waits for
+		 *         something, for example a person for an elevator.
+		 */
+		default boolean isQuiescent() {
+			return true;
+		}
+
+		/**
+		 * @return the number of events performed so far, or {@link #UNKNOWN}.
+		 */
+		default long getProcessedEventCount() {
+			return UNKNOWN;
+		}
 	}
 
 	public Clock(final FeedbackListener c) {
@@ -82,6 +120,10 @@ public abstract class Clock {
 		this.feedbackListener = l;
 	}
 
+	protected final FeedbackListener getFeedbackListener() {
+		return this.feedbackListener;
+	}
+
 	public final boolean isRunning() {
 		return this.isRunning;
 	}
@@ -131,6 +173,16 @@ public abstract class Clock {
 		return this.accelFactor;
 	}
 
+	/**
+	 * Called when an event is added for the given simulation time. Clocks that
+	 * sleep until the next event wake up early when it is before the time they
+	 * planned to wake up. This is a no-op by default.
+	 *
+	 * @param time the simulation time of the added event
+	 */
+	public void eventScheduled(final long time) {
+	}
+
 	public abstract void dispose();
 
 	public abstract void start();
@@ -0,0 +1,156 @@
+package org.intranet.sim.clock;
+
+/**
+ * A clock for batch runs, that jumps from event to event as fast as possible.
+ * {@link #start()} runs the simulation until no event is pending (or until the
+ * end time, if one is given) and then returns; the clock is not running
+ * anymore after that. The feedback listener must know the time of the next
+ * event, see {@link Clock.FeedbackListener#getNextEventTime()}.
+ * <p>
+ * After the run, the clock tells when the simulation ended, how fast it ran,
+ * and whether it stalled: the queue ran empty while the model was not at rest,
+ * see {@link Clock.FeedbackListener#isQuiescent()}.
+ * </p>
+ */
+public class FastForwardClock extends Clock {
+	public static class FastForwardClockFactory implements ClockFactory {
+		private final long endTime;
+
+		/**
+		 * Create clocks that run until no event is pending.
+		 */
+		public FastForwardClockFactory() {
+			this(Long.MAX_VALUE);
+		}
+
+		/**
+		 * @param endTime the simulation time at which the clocks stop, even if
+		 *                events are still pending.
+		 */
+		public FastForwardClockFactory(final long endTime) {
+			super();
+			this.endTime = endTime;
+		}
+
+		@Override
+		public Clock createClock(final FeedbackListener cl) {
+			return new FastForwardClock(cl, this.endTime);
+		}
+	}
+
+	private final long endTime;
+	private volatile boolean pauseRequested;
+	private long processedEvents;
+	private long runNanos;
+	private boolean stalled;
+	private boolean truncated;
+
+	/**
+	 * @param c       a listener for the clock
+	 * @param endTime the simulation time at which the clock stops, even if events
+	 *                are still pending. Use Long.MAX_VALUE to run until no event
+	 *                is pending.
+	 */
+	public FastForwardClock(final FeedbackListener c, final long endTime) {
+		super(c);
+		this.endTime = endTime;
+	}
+
+	/**
+	 * Run the simulation. Returns when no event is pending, the end time is
+	 * reached, or {@link #pause()} was called.
+	 */
+	@Override
+	public void start() {
+		if (isRunning()) {
+			throw new IllegalStateException("Can't start while already running");
+		}
+		setRunningState(true);
+		this.pauseRequested = false;
+		this.stalled = false;
+		this.truncated = false;
+		final FeedbackListener feedback = getFeedbackListener();
+		final long startEvents = feedback.getProcessedEventCount();
+		final long startNanos = System.nanoTime();
+		try {
+			while (!this.pauseRequested) {
+				final long nextEventTime = feedback.getNextEventTime();
+				if (nextEventTime == FeedbackListener.UNKNOWN) {
+					throw new IllegalStateException("Feedback listener does not know the next event time");
+				}
+				if (nextEventTime == Long.MAX_VALUE) {
+					this.stalled = !feedback.isQuiescent();
+					break;
+				}
+				if (nextEventTime > this.endTime) {
+					this.truncated = true;
+					setSimulationTime(this.endTime);
+					break;
+				}
+				setSimulationTime(nextEventTime);
+			}
+		} finally {
+			this.runNanos = System.nanoTime() - startNanos;
+			this.processedEvents = feedback.getProcessedEventCount() - startEvents;
+			setRunningState(false);
+		}
+	}
+
+	/**
+	 * Stop the run. If called from another thread, {@link #start()} returns after
+	 * the current step.
+	 */
+	@Override
+	public void pause() {
+		if (!isRunning()) {
+			throw new IllegalStateException("Can't pause while not running");
+		}
+		this.pauseRequested = true;
+	}
+
+	@Override
+	public void dispose() {
+		this.pauseRequested = true;
+	}
+
+	/**
+	 * @return the simulation time at which the last run ended.
+	 */
+	public long getEndTime() {
+		return getSimulationTime();
+	}
+
+	/**
+	 * @return the number of events performed in the last run.
+	 */
+	public long getProcessedEvents() {
+		return this.processedEvents;
+	}
+
+	/**
+	 * @return the number of events performed per second of real time in the last
+	 *         run.
+	 */
+	public double getEventsPerSecond() {
+		if (this.runNanos == 0) {
+			return 0;
+		}
+		return this.processedEvents * 1e9 / this.runNanos;
+	}
+
+	/**
+	 * @return true if the last run ended because no event was pending while the
+	 *         model still waited for something.
+	 */
+	public boolean isStalled() {
+		return this.stalled;
+	}
+
+	/**
+	 * @return true if the last run stopped at the end time while events were
+	 *         still pending.
+	 */
+	public boolean isTruncated() {
+		return this.truncated;
+	}
+}
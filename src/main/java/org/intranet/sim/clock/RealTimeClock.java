@@ -8,32 +8,70 @@ import org.intranet.sim.Simulator;
 
 /**
  * A clock that actually runs on a real time thread.
+ * <p>
+ * By default the clock ticks every 100 ms of real time. An event that another
+ * thread, such as an agent action, schedules before the next tick is processed
+ * at once in a step between the ticks. Event driven, the clock instead
+ * sleeps until the next pending event is due, or until an event is scheduled
+ * earlier than that (see {@link #eventScheduled(long)}). It then only ticks at
+ * the animation rate while someone watches the simulation, see
+ * {@link Clock.FeedbackListener#isObserved()}. An idle, unwatched simulation
+ * then costs nothing.
+ * </p>
  *
  * @author Neil McKellar and Chris Dailey
  * @author W.Pasman 11nov2010 to use preferred time factor.
  */
 public class RealTimeClock extends Clock {
 	public static class RealTimeClockFactory implements ClockFactory {
+		/**
+		 * @return a {@link RealTimeClock}, or a clock of the
+		 *         {@link SharedClockFactory} if the preferred
+		 *         {@link Simulator.Keys#CLOCKMODE} is "shared".
+		 */
 		@Override
 		public Clock createClock(final FeedbackListener cl) {
+			if ("shared".equals(Simulator.simulatorprefs.get(Simulator.Keys.CLOCKMODE.toString(), "tick"))) {
+				return SharedClockFactory.getInstance().createClock(cl);
+			}
 			return new RealTimeClock(cl);
 		}
 	}
 
-	private AnimationLoop animationLoop;
+	/**
+	 * Real time between two animation frames, in ms.
+	 */
+	private static final long FRAME_TIME = 100;
+	private final boolean eventDriven;
+	private volatile AnimationLoop animationLoop;
 	private Thread animationThread;
-	private double realTime2SimTime = 1;
+	private volatile double realTime2SimTime = 1;
 
 	/**
-	 * Modified W.Pasman 11nov2010 to use preferred accelFactor.
+	 * Modified W.Pasman 11nov2010 to use preferred accelFactor. Ticks or is event
+	 * driven depending on the preferred {@link Simulator.Keys#CLOCKMODE}.
 	 *
 	 * @param c a listener for the clock
 	 */
 	public RealTimeClock(final FeedbackListener c) {
+		this(c, "event".equals(Simulator.simulatorprefs.get(Simulator.Keys.CLOCKMODE.toString(), "tick")));
+	}
+
+	/**
+	 * @param c           a listener for the clock
+	 * @param eventDriven true to sleep until the next event instead of ticking
+	 *                    every 100 ms.
+	 */
+	public RealTimeClock(final FeedbackListener c, final boolean eventDriven) {
 		super(c);
+		this.eventDriven = eventDriven;
 		setTimeConversion(Simulator.simulatorprefs.getInt(Simulator.Keys.TIMEFACTOR.toString(), 0));
 	}
 
+	public boolean isEventDriven() {
+		return this.eventDriven;
+	}
+
 	@Override
 	public synchronized void start() {
 		if (isRunning()) {
@@ -67,46 +105,182 @@ public class RealTimeClock extends Clock {
 	public void setTimeConversion(final int factor) {
 		super.setTimeConversion(factor);
 		this.realTime2SimTime = Math.pow(2, this.accelFactor);
+		final AnimationLoop loop = this.animationLoop;
+		if (loop != null) {
+			loop.wakeUp();
+		}
+	}
 
+	@Override
+	public void eventScheduled(final long time) {
+		final AnimationLoop loop = this.animationLoop;
+		if (loop != null) {
+			loop.eventScheduled(time);
+		}
 	}
 
 	class AnimationLoop implements Runnable {
-		private boolean running = true;
+		private volatile boolean running = true;
+		private volatile Thread thread;
+		/**
+		 * Events scheduled by other threads before this simulation time wake us up.
+		 * In event driven mode this is the time of the event we are sleeping for,
+		 * ticking it is the simulation time of the next tick.
+		 */
+		private long plannedEventTime = Long.MAX_VALUE;
+		private boolean woken;
+		/**
+		 * Earliest time of the events that woke us up, Long.MAX_VALUE if none.
+		 */
+		private long scheduledTime = Long.MAX_VALUE;
 
 		@Override
 		public void run() {
+			this.thread = Thread.currentThread();
+			if (RealTimeClock.this.eventDriven) {
+				runEventDriven();
+			} else {
+				runTicking();
+			}
+		}
+
+		private void runTicking() {
 			// The primary concept here is that the ideal real-time intervals
 			// are always the same. The code increments the real-time values to
 			// ensure that this is true.
 			// The secondary concept is that the simulation time is always in
 			// direct proportion to the ideal real-time intervals.
-			final long realTimeIncrement = 100;
+			// Events that other threads (agents) schedule before the next tick
+			// are processed at once, in a step between the ticks.
+			final long realTimeIncrement = FRAME_TIME;
 			long targetRealTime = System.currentTimeMillis();
 			long simulationTime = getSimulationTime();
 			while (this.running) {
-				setSimulationTime(simulationTime);
+				final long tickRealTime = targetRealTime;
+				final long tickSimulationTime = simulationTime;
 				targetRealTime += realTimeIncrement;
+				resetWakeUp(tickSimulationTime + (long) (realTimeIncrement * RealTimeClock.this.realTime2SimTime));
+				setSimulationTime(simulationTime);
 
-				final long sleepTime = targetRealTime - System.currentTimeMillis();
-				if (sleepTime > 0) {
-					sleep(sleepTime);
+				while (!awaitWakeUp(targetRealTime) && this.running) {
+					final long now = System.currentTimeMillis();
+					simulationTime = Math.max(simulationTime,
+							tickSimulationTime + (long) ((now - tickRealTime) * RealTimeClock.this.realTime2SimTime));
+					final long eventTime = takeScheduledTime();
+					if (eventTime != Long.MAX_VALUE) {
+						simulationTime = Math.max(simulationTime, eventTime);
+					}
+					setSimulationTime(simulationTime);
 				}
 
-				simulationTime += (long) (realTimeIncrement * RealTimeClock.this.realTime2SimTime);
+				simulationTime = Math.max(simulationTime,
+						tickSimulationTime + (long) (realTimeIncrement * RealTimeClock.this.realTime2SimTime));
 			}
 			setSimulationTime(simulationTime);
 		}
 
-		private void sleep(final long sleepTime) {
-			try {
-				Thread.sleep(sleepTime);
-			} catch (final InterruptedException ie) {
-				// Ignore it and let the loop go around again
+		private void runEventDriven() {
+			// The simulation time is in direct proportion to the real time since
+			// the anchor. The anchor moves when the time factor changes.
+			double factor = RealTimeClock.this.realTime2SimTime;
+			long anchorRealTime = System.currentTimeMillis();
+			long anchorSimulationTime = getSimulationTime();
+			long simulationTime = anchorSimulationTime;
+			while (this.running) {
+				setSimulationTime(simulationTime);
+				final long stepRealTime = System.currentTimeMillis();
+				if (factor != RealTimeClock.this.realTime2SimTime) {
+					factor = RealTimeClock.this.realTime2SimTime;
+					anchorRealTime = stepRealTime;
+					anchorSimulationTime = simulationTime;
+				}
+
+				resetWakeUp(Long.MAX_VALUE);
+				final FeedbackListener feedback = getFeedbackListener();
+				final long nextEventTime = feedback.getNextEventTime();
+				long wakeUpRealTime = Long.MAX_VALUE;
+				if (nextEventTime == FeedbackListener.UNKNOWN || feedback.isObserved()) {
+					wakeUpRealTime = stepRealTime + FRAME_TIME;
+				}
+				if (nextEventTime != FeedbackListener.UNKNOWN && nextEventTime != Long.MAX_VALUE) {
+					final double delay = Math.ceil((nextEventTime - anchorSimulationTime) / factor);
+					wakeUpRealTime = Math.min(wakeUpRealTime,
+							anchorRealTime + (long) Math.min(delay, Long.MAX_VALUE / 2));
+					planWakeUp(nextEventTime);
+				}
+				final boolean eventDue = awaitWakeUp(wakeUpRealTime);
+
+				final long now = System.currentTimeMillis();
+				simulationTime = Math.max(simulationTime,
+						anchorSimulationTime + (long) ((now - anchorRealTime) * factor));
+				if (eventDue && nextEventTime != FeedbackListener.UNKNOWN && nextEventTime != Long.MAX_VALUE) {
+					// do not let rounding make us miss the event we woke up for
+					simulationTime = Math.max(simulationTime, nextEventTime);
+				}
+				final long eventTime = takeScheduledTime();
+				if (eventTime != Long.MAX_VALUE) {
+					simulationTime = Math.max(simulationTime, eventTime);
+				}
+			}
+			setSimulationTime(simulationTime);
+		}
+
+		private synchronized void resetWakeUp(final long eventTime) {
+			this.plannedEventTime = eventTime;
+			this.woken = false;
+			this.scheduledTime = Long.MAX_VALUE;
+		}
+
+		private synchronized void planWakeUp(final long eventTime) {
+			this.plannedEventTime = eventTime;
+		}
+
+		private synchronized long takeScheduledTime() {
+			final long time = this.scheduledTime;
+			this.scheduledTime = Long.MAX_VALUE;
+			this.woken = false;
+			return time;
+		}
+
+		/**
+		 * @return true if we slept until the wake up time, false if we were woken
+		 *         early.
+		 */
+		private synchronized boolean awaitWakeUp(final long wakeUpRealTime) {
+			while (this.running && !this.woken) {
+				final long sleepTime = wakeUpRealTime - System.currentTimeMillis();
+				if (sleepTime <= 0) {
+					return true;
+				}
+				try {
+					wait(wakeUpRealTime == Long.MAX_VALUE ? 0 : sleepTime);
+				} catch (final InterruptedException ie) {
+					// Ignore it and let the loop go around again
+				}
 			}
+			return false;
+		}
+
+		/**
+		 * Wakes us up if another thread scheduled an event before the planned time.
+		 * Events that we schedule ourselves while processing are picked up anyway.
+		 */
+		synchronized void eventScheduled(final long time) {
+			if (Thread.currentThread() != this.thread && time < this.plannedEventTime) {
+				this.woken = true;
+				this.scheduledTime = Math.min(this.scheduledTime, time);
+				notifyAll();
+			}
+		}
+
+		synchronized void wakeUp() {
+			this.woken = true;
+			notifyAll();
 		}
 
-		public void stop() {
+		public synchronized void stop() {
 			this.running = false;
+			notifyAll();
 		}
 	}
 
@@ -0,0 +1,131 @@
+package org.intranet.sim.clock;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.intranet.sim.Simulator;
+
+/**
+ * Creates real time clocks that all run on one shared scheduler, instead of
+ * each {@link RealTimeClock} having its own thread. Use this to host many
+ * simulations in one JVM. Every clock still has its own time factor and can be
+ * started and paused on its own; the scheduler only runs the steps of the
+ * clocks that are running.
+ * <p>
+ * Like the ticking {@link RealTimeClock}, a clock advances its simulation time
+ * every 100 ms of real time, in proportion to its time factor.
+ * </p>
+ */
+public class SharedClockFactory implements ClockFactory {
+	/**
+	 * Real time between two steps of a clock, in ms.
+	 */
+	private static final long FRAME_TIME = 100;
+	private static SharedClockFactory instance;
+	private final ScheduledExecutorService scheduler;
+
+	/**
+	 * @param threads the number of threads that run the steps of all clocks.
+	 */
+	public SharedClockFactory(final int threads) {
+		super();
+		if (threads < 1) {
+			throw new IllegalArgumentException("Need at least one thread, got " + threads);
+		}
+		this.scheduler = Executors.newScheduledThreadPool(threads, runnable -> {
+			final Thread thread = new Thread(runnable, "SharedClock");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * @return the factory that all simulations share by default, with a thread
+	 *         per processor.
+	 */
+	public static synchronized SharedClockFactory getInstance() {
+		if (instance == null) {
+			instance = new SharedClockFactory(Runtime.getRuntime().availableProcessors());
+		}
+		return instance;
+	}
+
+	@Override
+	public Clock createClock(final Clock.FeedbackListener cl) {
+		return new SharedClock(cl);
+	}
+
+	/**
+	 * Stop the scheduler. Clocks of this factory can not be started after this.
+	 */
+	public void shutdown() {
+		this.scheduler.shutdown();
+	}
+
+	private class SharedClock extends Clock {
+		private final Object stepLock = new Object();
+		private ScheduledFuture<?> steps;
+		private volatile double realTime2SimTime = 1;
+		private long nextSimulationTime;
+
+		SharedClock(final FeedbackListener c) {
+			super(c);
+			setTimeConversion(Simulator.simulatorprefs.getInt(Simulator.Keys.TIMEFACTOR.toString(), 0));
+		}
+
+		@Override
+		public synchronized void start() {
+			if (isRunning()) {
+				throw new IllegalStateException("Can't start while already running");
+			}
+			setRunningState(true);
+			this.nextSimulationTime = getSimulationTime();
+			// at a fixed rate the ideal real-time intervals are always the same,
+			// and late steps catch up.
+			this.steps = SharedClockFactory.this.scheduler.scheduleAtFixedRate(this::step, 0, FRAME_TIME,
+					TimeUnit.MILLISECONDS);
+		}
+
+		private void step() {
+			synchronized (this.stepLock) {
+				try {
+					setSimulationTime(this.nextSimulationTime);
+				} catch (final RuntimeException e) {
+					// an exception would silently cancel all further steps
+					e.printStackTrace();
+				}
+				this.nextSimulationTime += (long) (FRAME_TIME * this.realTime2SimTime);
+			}
+		}
+
+		@Override
+		public synchronized void pause() {
+			if (!isRunning()) {
+				throw new IllegalStateException("Can't pause while not running");
+			}
+			this.steps.cancel(false);
+			if (!Thread.holdsLock(this.stepLock)) {
+				// wait for a step that is running right now
+				synchronized (this.stepLock) {
+					this.steps = null;
+				}
+			}
+			setRunningState(false);
+		}
+
+		@Override
+		public void setTimeConversion(final int factor) {
+			super.setTimeConversion(factor);
+			this.realTime2SimTime = Math.pow(2, this.accelFactor);
+		}
+
+		@Override
+		public synchronized void dispose() {
+			if (isRunning()) {
+				pause();
+			}
+		}
+	}
+}
@@ -21,9 +21,22 @@ import java.util.Comparator;
  * @author Neil McKellar and Chris Dailey
  */
 public abstract class Event {
-	private static long maxId;
-	private final long id;
+	/**
+	 * Sequence number given by the {@link EventQueue} when the event is added, -1
+	 * before that.
+	 */
+	private long id = -1;
 	private final long time;
+	/**
+	 * Position of this event in a {@link HeapEventSet}, or -1 if it is not in
+	 * one.
+	 */
+	int heapSlot = -1;
+	/**
+	 * {@link System#nanoTime()} when the event was given to
+	 * {@link EventQueue#insertEvent(Event)}, 0 for other events.
+	 */
+	long insertedAt;
 
 	/**
 	 * Create an event that will happen at the given simulated time. At that time,
@@ -33,18 +46,22 @@ public abstract class Event {
 	 */
 	public Event(final long newTime) {
 		super();
-		this.id = getNextId();
 		this.time = newTime;
 	}
 
-	private static synchronized long getNextId() {
-		return maxId++;
-	}
-
+	/**
+	 * @return the sequence number that orders this event among the events of its
+	 *         {@link EventQueue} that happen at the same time. Events added
+	 *         earlier come first.
+	 */
 	public long getId() {
 		return this.id;
 	}
 
+	void setId(final long sequence) {
+		this.id = sequence;
+	}
+
 	@Override
 	public String toString() {
 		final String fullClassName = getClass().getName();
@@ -64,12 +81,12 @@ public abstract class Event {
 			final Event e1 = o1;
 			final Event e2 = o2;
 
-			final long diff = (e1.getTime() - e2.getTime());
+			// no subtraction, ids of events added ahead are negative
+			final int diff = Long.compare(e1.getTime(), e2.getTime());
 			if (diff == 0) {
-				final long idDiff = e1.getId() - e2.getId();
-				return idDiff == 0 ? 0 : idDiff > 0 ? 1 : -1;
+				return Long.compare(e1.getId(), e2.getId());
 			}
-			return (diff > 0) ? 1 : -1;
+			return diff;
 		}
 	}
 
@@ -4,11 +4,10 @@
  */
 package org.intranet.sim.event;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.TreeSet;
 
+import org.intranet.sim.ListenerList;
 import org.intranet.sim.clock.RealTimeClock;
 
 /**
@@ -28,7 +27,55 @@ public final class EventQueue {
 	private long currentTime = -1; // Invalid time value initially
 	private long lastTime;
 	private long lastEventProcessTime;
-	private final TreeSet<Event> eventSet = new TreeSet<>(new Event.EventTimeComparator());
+	private final EventSet eventSet;
+	/**
+	 * The pending {@link IncrementalUpdateEvent}s, kept apart from the other
+	 * events so that advancing the time only touches the few events that track
+	 * something (moving cars, doors, people).
+	 */
+	private IncrementalUpdateEvent[] updateEvents = new IncrementalUpdateEvent[16];
+	private int numUpdateEvents;
+	private volatile boolean interpolateOnDemand;
+	/**
+	 * Next sequence number for {@link Event#setId(long)}. Only used within
+	 * {@link #addEvent(Event)}, so this queue's lock is enough.
+	 */
+	private long nextSequence;
+	/**
+	 * Next sequence number for {@link #addEventAhead(Event)}. These are below all
+	 * numbers of {@link #nextSequence}.
+	 */
+	private long nextAheadSequence = Long.MIN_VALUE;
+	/**
+	 * The number of events performed so far.
+	 */
+	private long processedEventCount;
+	/**
+	 * Wall clock latency, in ns, from {@link #insertEvent(Event)} until the event
+	 * is performed: the number of events measured, their total and the highest.
+	 */
+	private long insertLatencyCount;
+	private long totalInsertLatency;
+	private long maxInsertLatency;
+
+	/**
+	 * Create a queue that keeps its events in a {@link HeapEventSet}.
+	 */
+	public EventQueue() {
+		this(new HeapEventSet());
+	}
+
+	/**
+	 * @param events the (empty) storage for the pending events, for example a
+	 *               {@link HeapEventSet} or a {@link TreeEventSet}.
+	 */
+	public EventQueue(final EventSet events) {
+		super();
+		if (!events.isEmpty()) {
+			throw new IllegalArgumentException("EventSet must be empty");
+		}
+		this.eventSet = events;
+	}
 
 	/**
 	 * Interface for listeners for events in the {@link EventQueue}.
@@ -42,7 +89,7 @@ public final class EventQueue {
 		void eventError(Exception ex);
 	}
 
-	private final List<Listener> listeners = new LinkedList<>();
+	private final ListenerList<Listener> listeners = new ListenerList<>(Listener.class);
 
 	/**
 	 * Add new event to the event set.
@@ -51,6 +98,22 @@ public final class EventQueue {
 	 *              &gt; {@link #getCurrentTime()} and not already be in the set.
 	 */
 	public synchronized void addEvent(final Event event) {
+		add(event, false);
+	}
+
+	/**
+	 * Add new event that is performed before all events of
+	 * {@link #addEvent(Event)} at the same time. Events added this way keep their
+	 * own order. This lets a series of events that is scheduled one by one, like
+	 * arriving riders, happen in the order as if all were added at the start.
+	 *
+	 * @param event new event, see {@link #addEvent(Event)}.
+	 */
+	public synchronized void addEventAhead(final Event event) {
+		add(event, true);
+	}
+
+	private void add(final Event event, final boolean ahead) {
 		// System.out.println("EventQueue event at currentTime=" + currentTime +
 		// " for time="+event.getTime()+ ", class="+event.getClass().getName());
 		if (event.getTime() < this.lastTime) {
@@ -64,10 +127,13 @@ public final class EventQueue {
 		if (this.eventSet.contains(event)) {
 			throw new IllegalArgumentException("Cannot re-add an Event to the queue!");
 		}
+		event.setId(ahead ? this.nextAheadSequence++ : this.nextSequence++);
 		this.eventSet.add(event);
+		if (event instanceof IncrementalUpdateEvent) {
+			register((IncrementalUpdateEvent) event);
+		}
 
-		for (final Listener listener2 : this.listeners) {
-			final Listener listener = listener2;
+		for (final Listener listener : this.listeners.getListeners()) {
 			listener.eventAdded(event);
 		}
 	}
@@ -84,9 +150,10 @@ public final class EventQueue {
 		 * by the time this function is called. And it seems not to matter anyway - if
 		 * it was already removed (because event ended) then we can just proceed.
 		 */
-		this.eventSet.remove(event);
-		for (final Listener listener2 : this.listeners) {
-			final Listener listener = listener2;
+		if (this.eventSet.remove(event) && event instanceof IncrementalUpdateEvent) {
+			unregister((IncrementalUpdateEvent) event);
+		}
+		for (final Listener listener : this.listeners.getListeners()) {
 			listener.eventRemoved(event);
 		}
 	}
@@ -95,7 +162,16 @@ public final class EventQueue {
 	 * @return COPY of event list
 	 */
 	public synchronized List<Event> getEventList() {
-		return new ArrayList<>(this.eventSet);
+		return this.eventSet.toList();
+	}
+
+	/**
+	 * @return the time of the earliest pending event, or {@link Long#MAX_VALUE}
+	 *         if there is none.
+	 */
+	public synchronized long getNextEventTime() {
+		final Event first = this.eventSet.first();
+		return first == null ? Long.MAX_VALUE : first.getTime();
 	}
 
 	/**
@@ -141,12 +217,15 @@ public final class EventQueue {
 				}
 
 				this.lastEventProcessTime = this.currentTime;
+				if (currentEvent.insertedAt != 0) {
+					recordInsertLatency(System.nanoTime() - currentEvent.insertedAt);
+				}
 				currentEvent.perform();
 				numEventsProcessed++;
+				this.processedEventCount++;
 			} catch (final Exception e) {
 				e.printStackTrace();
-				for (final Listener listener : this.listeners) {
-					final Listener l = listener;
+				for (final Listener l : this.listeners.getListeners()) {
 					l.eventError(e);
 				}
 			}
@@ -160,22 +239,106 @@ public final class EventQueue {
 
 	private int updateEventProgress() {
 		int numEventsProcessed = 0;
-		// Update any events that have incremental progress between states
-		// we draw a copy of the queue to avoid blocking the queue too long.
-		for (final Event evt : getEventList()) {
-			if (evt instanceof IncrementalUpdateEvent) {
-				final IncrementalUpdateEvent updateEvent = (IncrementalUpdateEvent) evt;
-				try {
-					updateEvent.updateTime();
-					numEventsProcessed++;
-				} catch (final Exception ex) {
-					ex.printStackTrace();
-				}
+		// Update any events that have incremental progress between states.
+		// Walk backwards so an update that removes an event does not make us
+		// skip another one.
+		for (int i = this.numUpdateEvents - 1; i >= 0; i--) {
+			if (i >= this.numUpdateEvents) {
+				continue;
+			}
+			final IncrementalUpdateEvent updateEvent = this.updateEvents[i];
+			// the tracked value still changed, even if nobody asked for it yet.
+			numEventsProcessed++;
+			if (this.interpolateOnDemand && updateEvent instanceof TrackingUpdateEvent
+					&& ((TrackingUpdateEvent) updateEvent).isInterpolatedOnDemand()) {
+				continue;
+			}
+			try {
+				updateEvent.updateTime();
+			} catch (final Exception ex) {
+				ex.printStackTrace();
 			}
 		}
 		return numEventsProcessed;
 	}
 
+	/**
+	 * @return the number of events performed so far.
+	 */
+	public synchronized long getProcessedEventCount() {
+		return this.processedEventCount;
+	}
+
+	private void recordInsertLatency(final long latency) {
+		this.insertLatencyCount++;
+		this.totalInsertLatency += latency;
+		this.maxInsertLatency = Math.max(this.maxInsertLatency, latency);
+	}
+
+	/**
+	 * @return the number of events from {@link #insertEvent(Event)} that were
+	 *         performed.
+	 */
+	public synchronized long getInsertLatencyCount() {
+		return this.insertLatencyCount;
+	}
+
+	/**
+	 * @return the mean wall clock time in ms from {@link #insertEvent(Event)}
+	 *         until the event was performed, 0 if none was performed yet. This
+	 *         is the delay an agent action sees, caused by the clock.
+	 */
+	public synchronized double getMeanInsertLatency() {
+		if (this.insertLatencyCount == 0) {
+			return 0;
+		}
+		return this.totalInsertLatency / 1e6 / this.insertLatencyCount;
+	}
+
+	/**
+	 * @return the largest wall clock time in ms from {@link #insertEvent(Event)}
+	 *         until the event was performed.
+	 */
+	public synchronized double getMaxInsertLatency() {
+		return this.maxInsertLatency / 1e6;
+	}
+
+	private void register(final IncrementalUpdateEvent event) {
+		if (this.numUpdateEvents == this.updateEvents.length) {
+			this.updateEvents = Arrays.copyOf(this.updateEvents, this.numUpdateEvents * 2);
+		}
+		event.updateSlot = this.numUpdateEvents;
+		this.updateEvents[this.numUpdateEvents++] = event;
+	}
+
+	private void unregister(final IncrementalUpdateEvent event) {
+		final int slot = event.updateSlot;
+		final IncrementalUpdateEvent last = this.updateEvents[--this.numUpdateEvents];
+		this.updateEvents[slot] = last;
+		last.updateSlot = slot;
+		this.updateEvents[this.numUpdateEvents] = null;
+		event.updateSlot = -1;
+	}
+
+	/**
+	 * Choose how {@link TrackingUpdateEvent}s reach the model. By default their
+	 * {@link TrackingUpdateEvent#updateTime()} is called on every time step. On
+	 * demand, the queue skips them and the model computes the value with
+	 * {@link TrackingUpdateEvent#currentValue(long)} when it is read. This saves
+	 * the interpolation work in runs that nobody watches. Events that say they
+	 * are not {@link TrackingUpdateEvent#isInterpolatedOnDemand()} are still
+	 * updated on every time step.
+	 *
+	 * @param onDemand true to skip {@link TrackingUpdateEvent#updateTime()}.
+	 */
+	public void setInterpolateOnDemand(final boolean onDemand) {
+		this.interpolateOnDemand = onDemand;
+	}
+
+	public boolean isInterpolatingOnDemand() {
+		return this.interpolateOnDemand;
+	}
+
 	public void addListener(final Listener listener) {
 		this.listeners.add(listener);
 	}
@@ -211,6 +374,7 @@ public final class EventQueue {
 	 */
 	public synchronized void insertEvent(final Event event) {
 		final Event newTimedEvent = event.setTime(getCurrentTime() + 1);
+		newTimedEvent.insertedAt = System.nanoTime();
 		addEvent(newTimedEvent);
 	}
 }
@@ -0,0 +1,38 @@
+package org.intranet.sim.event;
+
+import java.util.List;
+
+/**
+ * Storage for the pending {@link Event}s of an {@link EventQueue}. Events are
+ * ordered by {@link Event.EventTimeComparator}: by time, and by id for events
+ * that happen at the same time. Implementations need not be thread safe, the
+ * {@link EventQueue} guards all access.
+ */
+public interface EventSet {
+	/**
+	 * @param event the event to add. Must not be in the set already.
+	 */
+	void add(Event event);
+
+	/**
+	 * @param event the event to remove
+	 * @return true if the event was in the set
+	 */
+	boolean remove(Event event);
+
+	boolean contains(Event event);
+
+	boolean isEmpty();
+
+	int size();
+
+	/**
+	 * @return the earliest event, or null if the set is empty.
+	 */
+	Event first();
+
+	/**
+	 * @return a new list of all events, sorted in processing order.
+	 */
+	List<Event> toList();
+}
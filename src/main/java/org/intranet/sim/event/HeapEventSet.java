@@ -0,0 +1,121 @@
+package org.intranet.sim.event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link EventSet} backed by an indexed binary heap. Every queued
+ * {@link Event} remembers its slot in the heap, so that cancelling an event
+ * (which happens a lot: doors reopening, cars changing destination) costs
+ * O(log n) without searching, and without the per-entry allocation of a tree.
+ */
+public final class HeapEventSet implements EventSet {
+	private Event[] heap = new Event[64];
+	private int size;
+
+	@Override
+	public void add(final Event event) {
+		if (this.size == this.heap.length) {
+			this.heap = Arrays.copyOf(this.heap, this.size * 2);
+		}
+		siftUp(this.size++, event);
+	}
+
+	@Override
+	public boolean remove(final Event event) {
+		if (!contains(event)) {
+			return false;
+		}
+		final int slot = event.heapSlot;
+		event.heapSlot = -1;
+		final Event last = this.heap[--this.size];
+		this.heap[this.size] = null;
+		if (slot != this.size) {
+			siftDown(slot, last);
+			if (this.heap[slot] == last) {
+				siftUp(slot, last);
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean contains(final Event event) {
+		final int slot = event.heapSlot;
+		return slot >= 0 && slot < this.size && this.heap[slot] == event;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public Event first() {
+		return this.heap[0];
+	}
+
+	@Override
+	public List<Event> toList() {
+		final List<Event> list = new ArrayList<>(this.size);
+		for (int i = 0; i < this.size; i++) {
+			list.add(this.heap[i]);
+		}
+		Collections.sort(list, new Event.EventTimeComparator());
+		return list;
+	}
+
+	private void siftUp(int slot, final Event event) {
+		while (slot > 0) {
+			final int parent = (slot - 1) >>> 1;
+			final Event e = this.heap[parent];
+			if (!precedes(event, e)) {
+				break;
+			}
+			place(slot, e);
+			slot = parent;
+		}
+		place(slot, event);
+	}
+
+	private void siftDown(int slot, final Event event) {
+		final int half = this.size >>> 1;
+		while (slot < half) {
+			int child = (slot << 1) + 1;
+			Event c = this.heap[child];
+			final int right = child + 1;
+			if (right < this.size && precedes(this.heap[right], c)) {
+				child = right;
+				c = this.heap[child];
+			}
+			if (!precedes(c, event)) {
+				break;
+			}
+			place(slot, c);
+			slot = child;
+		}
+		place(slot, event);
+	}
+
+	private void place(final int slot, final Event event) {
+		this.heap[slot] = event;
+		event.heapSlot = slot;
+	}
+
+	/**
+	 * Same order as {@link Event.EventTimeComparator}.
+	 */
+	private static boolean precedes(final Event e1, final Event e2) {
+		if (e1.getTime() != e2.getTime()) {
+			return e1.getTime() < e2.getTime();
+		}
+		return e1.getId() < e2.getId();
+	}
+}
@@ -5,9 +5,18 @@
 package org.intranet.sim.event;
 
 /**
+ * An {@link Event} that wants to be told whenever the {@link EventQueue}
+ * advances the time while it is pending, see {@link #updateTime()}.
+ *
  * @author Neil McKellar and Chris Dailey
  */
 public abstract class IncrementalUpdateEvent extends Event {
+	/**
+	 * Position of this event in the update registry of its {@link EventQueue},
+	 * or -1 if it is not queued.
+	 */
+	int updateSlot = -1;
+
 	private IncrementalUpdateEvent() {
 		super(0);
 	}
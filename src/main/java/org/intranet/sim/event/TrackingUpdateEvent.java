@@ -5,7 +5,12 @@
 package org.intranet.sim.event;
 
 /**
- * @author Neil McKellar and Chris Dailey Does interpolation.
+ * Does interpolation. The tracked value can be pushed into the model by
+ * {@link #updateTime()} on every time step, or the model can ask for
+ * {@link #currentValue(long)} only when it needs the value, see
+ * {@link EventQueue#setInterpolateOnDemand(boolean)}.
+ *
+ * @author Neil McKellar and Chris Dailey
  */
 public abstract class TrackingUpdateEvent extends IncrementalUpdateEvent {
 	private long beginTime;
@@ -23,7 +28,20 @@ public abstract class TrackingUpdateEvent extends IncrementalUpdateEvent {
 		this.distance = end - begin;
 	}
 
+	/**
+	 * @return true if the model computes the value from
+	 *         {@link #currentValue(long)} when it reads it, so the queue may skip
+	 *         {@link #updateTime()} when it interpolates on demand. False if
+	 *         {@link #updateTime()} must see every time step.
+	 */
+	public boolean isInterpolatedOnDemand() {
+		return true;
+	}
+
 	private float percentDone(final long time) {
+		if (getTime() == this.beginTime) {
+			return 1.0F; // nothing to interpolate, we are there already
+		}
 		return (float) (time - this.beginTime) / (getTime() - this.beginTime);
 	}
 
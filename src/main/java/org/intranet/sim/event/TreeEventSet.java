@@ -0,0 +1,48 @@
+package org.intranet.sim.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * {@link EventSet} backed by a {@link TreeSet}. This was the original storage
+ * of the {@link EventQueue}, and is kept for comparison.
+ */
+public final class TreeEventSet implements EventSet {
+	private final TreeSet<Event> events = new TreeSet<>(new Event.EventTimeComparator());
+
+	@Override
+	public void add(final Event event) {
+		this.events.add(event);
+	}
+
+	@Override
+	public boolean remove(final Event event) {
+		return this.events.remove(event);
+	}
+
+	@Override
+	public boolean contains(final Event event) {
+		return this.events.contains(event);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.events.isEmpty();
+	}
+
+	@Override
+	public int size() {
+		return this.events.size();
+	}
+
+	@Override
+	public Event first() {
+		return this.events.isEmpty() ? null : this.events.first();
+	}
+
+	@Override
+	public List<Event> toList() {
+		return new ArrayList<>(this.events);
+	}
+}
@@ -24,11 +24,8 @@ import javax.swing.WindowConstants;
 
 import org.intranet.sim.SimulationApplication;
 import org.intranet.sim.Simulator;
-import org.intranet.sim.clock.Clock;
-import org.intranet.sim.clock.ClockFactory;
+import org.intranet.sim.batch.ParameterSweep;
 import org.intranet.sim.clock.RealTimeClock;
-import org.intranet.sim.event.Event;
-import org.intranet.sim.event.EventQueue;
 import org.intranet.sim.ui.realtime.SimulationArea;
 import org.intranet.statistics.Column;
 import org.intranet.statistics.Table;
@@ -47,6 +44,7 @@ import org.intranet.ui.SingleValueParameter;
 public class MultipleSimulationArea extends JComponent {
 	private static final long serialVersionUID = 1L;
 	private boolean foundError;
+	private boolean sweepRunning;
 	private final Simulator sim;
 	private final SimulationApplication simApp;
 	private final JComponent topPanel = new JPanel();
@@ -71,27 +69,63 @@ public class MultipleSimulationArea extends JComponent {
 		this.topPanel.setLayout(new BorderLayout());
 		final List<Parameter> simParams = this.sim.getParameters();
 		this.multiValueParams = createMultiValueParameters(simParams);
-		final MultipleValueInputPanel ip = new MultipleValueInputPanel(this.multiValueParams, () -> {
-			MultipleSimulationArea.this.foundError = false;
-			MultipleSimulationArea.this.results = new HashMap<>();
-			for (final Iterator<List<Parameter>> i = createParameterSetIterator(
-					MultipleSimulationArea.this.multiValueParams); i.hasNext();) {
-				final List<Parameter> params = i.next();
-				updateSimulationParameters(MultipleSimulationArea.this.sim, params);
-				final List<Table> statistics = startSimulation(params);
-				if (MultipleSimulationArea.this.foundError) {
-					break;
-				}
-				MultipleSimulationArea.this.results.put(params, statistics);
-			}
-			if (!MultipleSimulationArea.this.foundError) {
-				createCenterPanel();
-			}
-		});
+		final MultipleValueInputPanel ip = new MultipleValueInputPanel(this.multiValueParams, this::startSweep);
 		this.topPanel.add(ip, BorderLayout.CENTER);
 		this.topBox.add(this.topPanel);
 	}
 
+	/**
+	 * Run the simulations on a worker pool, off the event dispatch thread, and
+	 * show the results when all are done.
+	 */
+	private void startSweep() {
+		if (this.sweepRunning) {
+			return;
+		}
+		this.sweepRunning = true;
+		this.foundError = false;
+		final Iterator<List<Parameter>> parameterSets = createParameterSetIterator(this.multiValueParams);
+		final Map<List<Parameter>, List<Table>> sweepResults = new HashMap<>();
+		final ParameterSweep sweep = new ParameterSweep(this.sim);
+		final Thread thread = new Thread(() -> {
+			boolean succeeded = false;
+			try {
+				succeeded = sweep.run(parameterSets, new ParameterSweep.Listener() {
+					@Override
+					public void runFinished(final List<Parameter> params, final Simulator simulator,
+							final List<Table> statistics) {
+						synchronized (sweepResults) {
+							sweepResults.put(params, statistics);
+						}
+					}
+
+					@Override
+					public void runFailed(final List<Parameter> params, final Exception e) {
+						SwingUtilities.invokeLater(() -> {
+							if (!MultipleSimulationArea.this.foundError) {
+								errorDialog(params, e);
+							}
+						});
+					}
+				});
+			} catch (final InterruptedException e) {
+				e.printStackTrace();
+			}
+			final boolean done = succeeded;
+			SwingUtilities.invokeLater(() -> {
+				MultipleSimulationArea.this.sweepRunning = false;
+				if (done) {
+					synchronized (sweepResults) {
+						MultipleSimulationArea.this.results = sweepResults;
+					}
+					createCenterPanel();
+				}
+			});
+		}, "ParameterSweep");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
 	private void createCenterPanel() {
 		final List<StatisticVariable> statisticsVariables = new LinkedList<>();
 		// Only fill the statistics variable with the headers of one set of tables,
@@ -132,7 +166,7 @@ public class MultipleSimulationArea extends JComponent {
 		this.bottomPanel.addResultsTableListener(params -> {
 			final Simulator newSim = MultipleSimulationArea.this.sim.duplicate();
 			// Parameters must be set before initializing the model.
-			updateSimulationParameters(newSim, params);
+			ParameterSweep.setParameters(newSim, params);
 			newSim.initialize(new RealTimeClock.RealTimeClockFactory());
 			final JFrame simFrame = new JFrame("Real Time Simulation Run");
 			simFrame.setIconImage(MultipleSimulationArea.this.simApp.getImageIcon());
@@ -152,64 +186,6 @@ public class MultipleSimulationArea extends JComponent {
 		new ExceptionDialog(window, params, e);
 	}
 
-	private void updateSimulationParameters(final Simulator updateSim, final List<Parameter> params) {
-		for (final Parameter parameter : params) {
-			final SingleValueParameter p = (SingleValueParameter) parameter;
-			final SingleValueParameter simParameter = updateSim.getParameter(p.getDescription());
-			simParameter.setValueFromUI(p.getUIValue());
-		}
-	}
-
-	private List<Table> startSimulation(final List<Parameter> params) {
-		// TODO : reconsider how to determine the endtime in a multiple simulation
-		final long endTime = 99000000;
-		final ClockFactory clockFactory = cl -> new Clock(cl) {
-			@Override
-			public void dispose() {
-			}
-
-			@Override
-			public void pause() {
-				setRunningState(false);
-			}
-
-			@Override
-			public void start() {
-				if (isRunning()) {
-					throw new IllegalStateException("Can't start while already running");
-				}
-				setRunningState(true);
-				setSimulationTime(endTime);
-			}
-		};
-		// initialize the sim
-		try {
-			this.sim.initialize(clockFactory);
-		} catch (final Exception e) {
-			errorDialog(params, e);
-			return null;
-		}
-		this.sim.getEventQueue().addListener(new EventQueue.Listener() {
-			@Override
-			public void eventAdded(final Event e) {
-			}
-
-			@Override
-			public void eventRemoved(final Event e) {
-			}
-
-			@Override
-			public void eventError(final Exception ex) {
-				if (!MultipleSimulationArea.this.foundError) {
-					errorDialog(params, ex);
-				}
-			}
-		});
-		// run the sim
-		this.sim.getClock().start();
-		return this.sim.getModel().getStatistics();
-	}
-
 	protected Iterator<List<Parameter>> createParameterSetIterator(final List<Parameter> rangeParams) {
 		final List<List<Parameter>> paramListList = new LinkedList<>();
 		for (final Parameter parameter : rangeParams) {
@@ -0,0 +1,45 @@
+package org.intranet.ui;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.intranet.sim.Simulator;
+
+/**
+ * Free text, like a file name. Has no range: the values of a range are just
+ * the minimum.
+ */
+public class StringParameter extends SingleValueParameter {
+	private static final long serialVersionUID = 1L;
+	private String value;
+
+	public StringParameter(final Simulator.Keys key, final String defaultValue) {
+		super(key);
+		this.value = defaultValue;
+	}
+
+	public String getStringValue() {
+		return this.value;
+	}
+
+	void setStringValue(final String newValue) {
+		this.value = newValue;
+	}
+
+	@Override
+	public void setValueFromUI(final Object param) {
+		setStringValue((String) param);
+	}
+
+	@Override
+	public Object getUIValue() {
+		return this.value;
+	}
+
+	@Override
+	public List<Object> getValues(final String min, final String max, final String inc) {
+		final List<Object> values = new ArrayList<>(1);
+		values.add(min);
+		return values;
+	}
+}
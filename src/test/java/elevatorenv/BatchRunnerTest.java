@@ -0,0 +1,91 @@
+package elevatorenv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import org.intranet.sim.Simulator;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link BatchRunner}.
+ */
+public class BatchRunnerTest {
+	private static BatchRunner createRunner() {
+		final BatchRunner runner = BatchRunner.forSimulation("Random Rider Insertion");
+		runner.setValues("FLOORS", Arrays.asList("6"));
+		runner.setValues("Number of People", Arrays.asList("10"));
+		runner.setValues("CONTROLLER", Arrays.asList("Default MetaController"));
+		runner.setRange("CARS", "2", "3", "1");
+		runner.setValues("RANDOMSEED", Arrays.asList("1", "2", "3"));
+		return runner;
+	}
+
+	@Test
+	public void testCsv() throws InterruptedException {
+		final BatchRunner runner = createRunner();
+		assertEquals(6, runner.createParameterSets().size());
+
+		final StringWriter out = new StringWriter();
+		assertTrue(runner.run(out, BatchRunner.Format.CSV, 2));
+		final String[] lines = out.toString().split("\\R");
+		assertEquals(7, lines.length);
+		assertTrue(lines[0].startsWith("Simulation,Number of floors,Number of Cars,"));
+		for (int n = 1; n < lines.length; n++) {
+			assertTrue(lines[n].startsWith("Random Rider Insertion,6,"));
+			assertEquals(lines[0].split(",").length, lines[n].split(",").length);
+		}
+	}
+
+	@Test
+	public void testJson() throws InterruptedException {
+		final StringWriter out = new StringWriter();
+		assertTrue(createRunner().run(out, BatchRunner.Format.JSON, 2));
+		final String[] lines = out.toString().split("\\R");
+		assertEquals(6, lines.length);
+		for (final String line : lines) {
+			assertTrue(line.startsWith("{\"Simulation\":\"Random Rider Insertion\",\"Number of floors\":\"6\","));
+			assertTrue(line.contains("\"Truncated\":false"));
+			assertTrue(line.endsWith("}"));
+		}
+	}
+
+	@Test
+	public void testStandardOutputHoldsOnlyResults() throws Exception {
+		final PrintStream stdout = System.out;
+		final PrintStream stderr = System.err;
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final ByteArrayOutputStream err = new ByteArrayOutputStream();
+		// the simulations warn about a preferred controller they do not have
+		final String key = Simulator.Keys.CONTROLLER.toString();
+		final String controller = Simulator.simulatorprefs.get(key, null);
+		Simulator.simulatorprefs.put(key, "No such controller");
+		final int status;
+		try {
+			System.setOut(new PrintStream(out, true, "UTF-8"));
+			System.setErr(new PrintStream(err, true, "UTF-8"));
+			status = BatchRunner.execute(new String[] { "-simulation", "Random Rider Insertion", "-set", "FLOORS=6",
+					"-set", "PEOPLE=10", "-seeds", "1,2", "-threads", "1" });
+		} finally {
+			System.setOut(stdout);
+			System.setErr(stderr);
+			if (controller == null) {
+				Simulator.simulatorprefs.remove(key);
+			} else {
+				Simulator.simulatorprefs.put(key, controller);
+			}
+		}
+		assertEquals(0, status);
+		assertTrue(err.toString("UTF-8").contains("unknown controller No such controller"));
+		final String[] lines = out.toString("UTF-8").split("\\R");
+		assertEquals(3, lines.length);
+		assertTrue(lines[0].startsWith("Simulation,Number of floors,"));
+		for (int n = 1; n < lines.length; n++) {
+			assertTrue(lines[n].startsWith("Random Rider Insertion,6,"));
+		}
+	}
+}
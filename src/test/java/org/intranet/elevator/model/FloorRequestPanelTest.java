@@ -0,0 +1,94 @@
+package org.intranet.elevator.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.intranet.sim.event.EventQueue;
+import org.junit.Test;
+
+/**
+ * Tests for {@link FloorRequestPanel} and the indexed lookups of {@link Floor}.
+ */
+public class FloorRequestPanelTest {
+	@Test
+	public void testRequestAndFulfil() {
+		final EventQueue eQ = new EventQueue();
+		final FloorRequestPanel panel = new FloorRequestPanel();
+		final Floor[] floors = new Floor[4];
+		for (int i = 0; i < floors.length; i++) {
+			floors[i] = new Floor(eQ, i + 1, 10 * i, 9);
+			panel.addServicedFloor(floors[i]);
+		}
+		final List<Floor> notified = new ArrayList<>();
+		panel.addListener(notified::add);
+
+		panel.requestFloor(floors[3]);
+		panel.requestFloor(floors[1]);
+		panel.requestFloor(floors[3]);
+		assertEquals(Arrays.asList(floors[3], floors[1]), notified);
+		assertEquals(Arrays.asList(floors[1], floors[3]), panel.getRequestedFloors());
+
+		panel.requestFulfilled(floors[1]);
+		panel.requestFulfilled(floors[0]);
+		assertEquals(Arrays.asList(floors[3]), panel.getRequestedFloors());
+		panel.requestFulfilled(floors[3]);
+		assertTrue(panel.getRequestedFloors().isEmpty());
+
+		assertSame(floors[3], panel.getMaxFloor());
+		assertSame(floors[0], panel.getMinFloor());
+		try {
+			// same index as a serviced floor, but not serviced
+			panel.requestFloor(new Floor(eQ, 2, 10, 9));
+			fail("requested an unreachable floor");
+		} catch (final IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testFloorAtHeight() {
+		final EventQueue eQ = new EventQueue();
+		final Floor f1 = new Floor(eQ, 1, 0, 9);
+		final Floor f2 = new Floor(eQ, 2, 10, 9);
+		final Floor f3 = new Floor(eQ, 3, 20, 9);
+		final FloorRequestPanel panel = new FloorRequestPanel();
+		// added out of height order
+		panel.addServicedFloor(f3);
+		panel.addServicedFloor(f1);
+		panel.addServicedFloor(f2);
+
+		assertSame(f1, panel.getFloorAt(0));
+		assertSame(f1, panel.getFloorAt(-0.0f));
+		assertSame(f2, panel.getFloorAt(10));
+		assertSame(f3, panel.getFloorAt(20));
+		assertNull(panel.getFloorAt(5));
+		assertNull(panel.getFloorAt(30));
+		assertNull(panel.getFloorAt(-10));
+	}
+
+	@Test
+	public void testCarEntranceByIndex() {
+		final EventQueue eQ = new EventQueue();
+		final Floor floor = new Floor(eQ, 1, 0, 0, 9);
+		final Car car0 = new Car(eQ, "0", 0, 0, 8);
+		final Car car1 = new Car(eQ, "1", 1, 0, 8);
+		final Car unindexed = new Car(eQ, "x", 0, 8);
+		floor.createCarEntrance(car1);
+		floor.createCarEntrance(unindexed);
+		floor.createCarEntrance(car0);
+
+		assertEquals(0, floor.getIndex());
+		assertSame(car0, floor.getCarEntranceForCar(car0).getDoor().getTo());
+		assertSame(car1, floor.getCarEntranceForCar(car1).getDoor().getTo());
+		assertSame(unindexed, floor.getCarEntranceForCar(unindexed).getDoor().getTo());
+		// another car with the same index is not confused with car 0
+		assertNull(floor.getCarEntranceForCar(new Car(eQ, "other", 0, 0, 8)));
+	}
+}
@@ -0,0 +1,236 @@
+package org.intranet.elevator.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.intranet.sim.event.EventQueue;
+import org.junit.Test;
+
+/**
+ * Tests for the waiting riders of a {@link Floor}.
+ */
+public class FloorTest {
+	/**
+	 * Rider that obstructs the door when entering, and remembers the order.
+	 */
+	private static final class Rider implements Floor.WaitingRider {
+		private final List<Rider> entered;
+		private CarEntrance entrance;
+
+		Rider(final List<Rider> entered) {
+			this.entered = entered;
+		}
+
+		@Override
+		public void enterCar(final CarEntrance carEntrance) {
+			this.entrance = carEntrance;
+			this.entered.add(this);
+			carEntrance.getDoorSensor().obstruct();
+		}
+	}
+
+	@Test
+	public void testRidersEnterInOrder() {
+		final EventQueue eQ = new EventQueue();
+		final Floor floor = new Floor(eQ, 1, 0, 0, 9);
+		final Car car = new Car(eQ, "0", 0, 0, 8);
+		floor.createCarEntrance(car);
+		final CarEntrance entrance = floor.getCarEntranceForCar(car);
+		final List<Rider> entered = new ArrayList<>();
+		final Rider first = new Rider(entered);
+		final Rider second = new Rider(entered);
+		final Rider down = new Rider(entered);
+
+		floor.waitForCar(first, true);
+		floor.waitForCar(second, true);
+		floor.waitForCar(down, false);
+		assertTrue(floor.getCallPanel().isUp());
+		assertTrue(floor.getCallPanel().isDown());
+		assertEquals(2, floor.getWaitingRiderCount(true));
+
+		entrance.setUp(true);
+		entrance.getDoor().open();
+		eQ.processEventsUpTo(2000);
+		// only the first one gets in, the second waits for the sensor
+		assertEquals(1, entered.size());
+		assertSame(entrance, first.entrance);
+		assertFalse(floor.getCallPanel().isUp());
+
+		entrance.getDoorSensor().unobstruct();
+		assertEquals(2, entered.size());
+		assertSame(second, entered.get(1));
+		assertEquals(0, floor.getWaitingRiderCount(true));
+		// the car goes up, so the rider going down still waits
+		assertEquals(1, floor.getWaitingRiderCount(false));
+	}
+
+	@Test
+	public void testRidersBoardFirstComeFirstServed() {
+		final EventQueue eQ = new EventQueue();
+		final Floor floor = new Floor(eQ, 1, 0, 0, 9);
+		final Car car = new Car(eQ, "0", 0, 0, 8);
+		floor.createCarEntrance(car);
+		final CarEntrance entrance = floor.getCarEntranceForCar(car);
+		final List<Rider> entered = new ArrayList<>();
+		final List<Rider> riders = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			final Rider rider = new Rider(entered);
+			riders.add(rider);
+			floor.waitForCar(rider, true);
+		}
+
+		entrance.setUp(true);
+		entrance.getDoor().open();
+		eQ.processEventsUpTo(2000);
+		// someone coming while the first one enters queues behind the others
+		final Rider late = new Rider(entered);
+		riders.add(late);
+		floor.waitForCar(late, true);
+		assertEquals(3, floor.getWaitingRiderCount(true));
+
+		for (int i = 1; i < riders.size(); i++) {
+			assertEquals(i, entered.size());
+			entrance.getDoorSensor().unobstruct();
+		}
+		assertEquals(riders, entered);
+		assertEquals(0, floor.getWaitingRiderCount(true));
+	}
+
+	@Test
+	public void testRidersComingWhileTheDoorOpensQueueBehind() {
+		final EventQueue eQ = new EventQueue();
+		final Floor floor = new Floor(eQ, 1, 0, 0, 9);
+		final Car car = new Car(eQ, "0", 0, 0, 8);
+		floor.createCarEntrance(car);
+		final CarEntrance entrance = floor.getCarEntranceForCar(car);
+		final List<Rider> entered = new ArrayList<>();
+		final Rider first = new Rider(entered);
+		final Rider second = new Rider(entered);
+		final Rider late = new Rider(entered);
+
+		floor.waitForCar(first, true);
+		floor.waitForCar(second, true);
+		// someone is getting out
+		entrance.getDoorSensor().obstruct();
+		entrance.setUp(true);
+		entrance.getDoor().open();
+		eQ.processEventsUpTo(1000);
+		floor.waitForCar(late, true);
+		eQ.processEventsUpTo(2000);
+		assertEquals(0, entered.size());
+
+		// the rider that saw the door open still waits for the others
+		entrance.getDoorSensor().unobstruct();
+		assertSame(first, entered.get(0));
+		entrance.getDoorSensor().unobstruct();
+		entrance.getDoorSensor().unobstruct();
+		assertEquals(Arrays.asList(first, second, late), entered);
+	}
+
+	@Test
+	public void testBusyCarGoingTheOtherWayDoesNotHoldTheCall() {
+		final EventQueue eQ = new EventQueue();
+		final Floor floor = new Floor(eQ, 1, 0, 0, 9);
+		final Car car = new Car(eQ, "0", 0, 0, 8);
+		floor.createCarEntrance(car);
+		final CarEntrance entrance = floor.getCarEntranceForCar(car);
+		final List<Rider> entered = new ArrayList<>();
+		final Rider down = new Rider(entered);
+		final Rider up = new Rider(entered);
+
+		entrance.setDown(true);
+		entrance.getDoor().open();
+		eQ.processEventsUpTo(2000);
+		floor.waitForCar(down, false);
+		assertSame(entrance, down.entrance);
+
+		// the car going down is busy, but it will not take this rider
+		floor.waitForCar(up, true);
+		assertEquals(1, floor.getWaitingRiderCount(true));
+		assertTrue(floor.getCallPanel().isUp());
+	}
+
+	@Test
+	public void testAssignedRidersWaitForTheirCar() {
+		final EventQueue eQ = new EventQueue();
+		final Floor floor = new Floor(eQ, 1, 0, 0, 9);
+		final Floor two = new Floor(eQ, 2, 1, 10, 9);
+		final Floor three = new Floor(eQ, 3, 2, 20, 9);
+		final Car first = new Car(eQ, "0", 0, 0, 8);
+		final Car second = new Car(eQ, "1", 1, 0, 8);
+		floor.createCarEntrance(first);
+		floor.createCarEntrance(second);
+		final CarEntrance firstEntrance = floor.getCarEntranceForCar(first);
+		final CarEntrance secondEntrance = floor.getCarEntranceForCar(second);
+		final List<Rider> entered = new ArrayList<>();
+		final Rider toThree = new Rider(entered);
+		final Rider toTwo = new Rider(entered);
+		final Rider anywhere = new Rider(entered);
+
+		floor.waitForCar(toThree, true, three);
+		floor.waitForCar(toTwo, true, two);
+		floor.waitForCar(anywhere, true);
+		assertEquals(1, floor.assignCar(three, true, second));
+		assertEquals(0, floor.assignCar(three, true, first));
+		assertEquals(3, floor.getWaitingRiderCount(true));
+		assertEquals(2, floor.getUnassignedRiderCount(true));
+
+		// the first car takes the others, the rider in front waits for the second
+		firstEntrance.setUp(true);
+		firstEntrance.getDoor().open();
+		eQ.processEventsUpTo(2000);
+		assertSame(firstEntrance, toTwo.entrance);
+		firstEntrance.getDoorSensor().unobstruct();
+		assertSame(firstEntrance, anywhere.entrance);
+		firstEntrance.getDoorSensor().unobstruct();
+		assertEquals(2, entered.size());
+		assertEquals(1, floor.getWaitingRiderCount(true));
+		assertEquals(0, floor.getUnassignedRiderCount(true));
+		// the second car is on its way, so nobody calls another one
+		assertFalse(floor.getCallPanel().isUp());
+
+		secondEntrance.setUp(true);
+		secondEntrance.getDoor().open();
+		eQ.processEventsUpTo(4000);
+		assertSame(secondEntrance, toThree.entrance);
+		assertEquals(0, floor.getWaitingRiderCount(true));
+	}
+
+	@Test
+	public void testAssignedRidersReleasedWhenTheirCarArrives() {
+		final EventQueue eQ = new EventQueue();
+		final Floor floor = new Floor(eQ, 1, 0, 0, 9);
+		final Floor three = new Floor(eQ, 3, 2, 20, 9);
+		final Car full = new Car(eQ, "0", 0, 0, 0);
+		final Car car = new Car(eQ, "1", 1, 0, 8);
+		floor.createCarEntrance(full);
+		floor.createCarEntrance(car);
+		final CarEntrance fullEntrance = floor.getCarEntranceForCar(full);
+		final CarEntrance entrance = floor.getCarEntranceForCar(car);
+		final List<Rider> entered = new ArrayList<>();
+		final Rider rider = new Rider(entered);
+
+		floor.waitForCar(rider, true, three);
+		floor.assignCar(three, true, full);
+		assertEquals(0, floor.getUnassignedRiderCount(true));
+
+		// the car came but can not take the rider, so they call another one
+		fullEntrance.setUp(true);
+		fullEntrance.getDoor().open();
+		eQ.processEventsUpTo(2000);
+		assertEquals(0, entered.size());
+		assertEquals(1, floor.getUnassignedRiderCount(true));
+		assertTrue(floor.getCallPanel().isUp());
+
+		entrance.setUp(true);
+		entrance.getDoor().open();
+		eQ.processEventsUpTo(4000);
+		assertSame(entrance, rider.entrance);
+	}
+}
@@ -125,4 +125,98 @@ public class MovableLocationTest extends TestCase {
 		assertTrue(this.hasArrived);
 		assertEquals(1.0f, this.movableLocation.getHeight());
 	}
+
+	@Test
+	public void testInterpolateOnDemand() {
+		final float[] pushed = reverseHalfway(false);
+		final float[] onDemand = reverseHalfway(true);
+		assertTrue(onDemand[0] > 0.0f);
+		for (int i = 0; i < pushed.length; i++) {
+			assertEquals(pushed[i], onDemand[i]);
+		}
+	}
+
+	/**
+	 * Go up to 3, turn back to 1 after one second.
+	 *
+	 * @return height and distance at 1000 and at 2000.
+	 */
+	private float[] reverseHalfway(final boolean onDemand) {
+		final EventQueue queue = new EventQueue();
+		queue.setInterpolateOnDemand(onDemand);
+		final MovableLocation location = new MovableLocation(queue, 0.0f, 10) {
+			@Override
+			public float getRatePerSecond() {
+				return 2.0f;
+			}
+
+			@Override
+			protected void arrive() {
+			}
+		};
+		queue.addEvent(new Event(0) {
+			@Override
+			public void perform() {
+				location.setDestinationHeight(3.0f);
+			}
+		});
+		queue.addEvent(new Event(1001) {
+			@Override
+			public void perform() {
+				location.setDestinationHeight(1.0f);
+			}
+		});
+		queue.processEventsUpTo(1000);
+		final float height = location.getHeight();
+		final float distance = location.getTotalDistance();
+		queue.processEventsUpTo(2000);
+		return new float[] { height, distance, location.getHeight(), location.getTotalDistance() };
+	}
+
+	@Test
+	public void testDistanceSummedPerStep() {
+		final float pushed = travelInSteps(false);
+		final float onDemand = travelInSteps(true);
+		assertEquals(Float.floatToIntBits(pushed), Float.floatToIntBits(onDemand));
+		// the rounding of the steps shows: the trips are 100 in all
+		assertTrue(pushed != 100.0f);
+		assertEquals(100.0f, pushed, 0.01f);
+	}
+
+	/**
+	 * Go to 30, 10, 40 and 20, advancing the clock in steps of 7 ms.
+	 *
+	 * @return the total distance after the last arrival.
+	 */
+	private float travelInSteps(final boolean onDemand) {
+		final EventQueue queue = new EventQueue();
+		queue.setInterpolateOnDemand(onDemand);
+		final float[] stops = { 30.0f, 10.0f, 40.0f, 20.0f };
+		final MovableLocation location = new MovableLocation(queue, 0.0f, 10) {
+			private int stop;
+
+			@Override
+			public float getRatePerSecond() {
+				return 2.0f;
+			}
+
+			@Override
+			protected void arrive() {
+				if (this.stop < stops.length) {
+					setDestinationHeight(stops[this.stop++]);
+				}
+			}
+		};
+		queue.addEvent(new Event(0) {
+			@Override
+			public void perform() {
+				location.setDestinationHeight(0.0f);
+			}
+		});
+		for (long time = 0; time <= 60000; time += 7) {
+			queue.processEventsUpTo(time);
+		}
+		assertEquals(20.0f, location.getHeight());
+		return location.getTotalDistance();
+	}
 }
@@ -5,13 +5,14 @@
 package org.intranet.elevator.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 import java.util.ArrayList;
 
 import org.intranet.elevator.RandomElevatorSimulator;
 import org.intranet.elevator.model.operate.controller.Controller;
 import org.intranet.elevator.model.operate.controller.SimpleController;
-import org.intranet.sim.clock.RealTimeClock;
+import org.intranet.sim.clock.FastForwardClock;
 import org.junit.Test;
 
 /**
@@ -19,7 +20,7 @@ import org.junit.Test;
  */
 public class ResultsCheck {
 	/**
-	 * Smoke test of sim. Runs for 10^6 seconds simulated time.
+	 * Smoke test of sim. Runs until no event is pending.
 	 */
 	@Test
 	public final void testRandomElevatorSimulator() {
@@ -31,19 +32,12 @@ public class ResultsCheck {
 		res.getParameter("Number of Cars").setValueFromUI("1");
 		res.getParameter("Number of People").setValueFromUI("11");
 		res.getParameter("Rider insertion time (ms)").setValueFromUI("500");
-		res.initialize(new RealTimeClock.RealTimeClockFactory());
-		// accelerate real time by a factor 2^20 ~ 10^6
-		((RealTimeClock) res.getClock()).setTimeConversion(20);
+		// limit to 10^6 sec simulation time.
+		res.initialize(new FastForwardClock.FastForwardClockFactory(1000000000L));
 		res.getClock().start();
-		// limit to 10^6 sec simulation time. The sim does not stop anymore so
-		// we have to set a time deadline.
-		while (res.getClock().isRunning() && res.getClock().getSimulationTime() < 1000000000L) {
-			try {
-				Thread.sleep(100);
-			} catch (final InterruptedException e) {
-				e.printStackTrace();
-			}
-		}
+		final FastForwardClock clock = (FastForwardClock) res.getClock();
+		assertFalse(clock.isTruncated());
+		assertFalse(clock.isStalled());
 		assertEquals(0, res.getEventQueue().getEventList().size());
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -105,6 +105,25 @@ public class TestCar extends TestCase {
 		assertCar(2.0f, this.floorTwo, null);
 	}
 
+	@Test
+	public final void testDestinationListener() {
+		final StringBuilder calls = new StringBuilder();
+		this.car.addListener(() -> calls.append("docked "));
+		this.car.addDestinationListener(this.floorThree, () -> calls.append("three "));
+		this.car.addDestinationListener(this.floorTwo, () -> calls.append("two "));
+		this.car.addDestinationListener(this.floorTwo, () -> calls.append("two2 "));
+
+		idleToDocked();
+		assertEquals("docked two two2 ", calls.toString());
+
+		// only once
+		setDestination(this.floorTwo, 1201);
+		undock(1205);
+		this.eQ.processEventsUpTo(1206);
+		assertEquals("docked two two2 docked ", calls.toString());
+		assertFalse(this.hasError);
+	}
+
 	private void assertCar(final float height, final Floor location, final Floor destination) {
 		assertNotNull(this.car);
 		assertEquals(height, this.car.getHeight(), 0.001);
@@ -140,4 +159,4 @@ public class TestCar extends TestCase {
 		this.eQ.processEventsUpTo(1200);
 		assertCar(2.0f, this.floorTwo, null);
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
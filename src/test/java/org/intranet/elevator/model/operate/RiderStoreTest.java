@@ -0,0 +1,52 @@
+package org.intranet.elevator.model.operate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.intranet.elevator.model.Floor;
+import org.intranet.sim.event.EventQueue;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link RiderStore}.
+ */
+public class RiderStoreTest {
+	@Test
+	public void testRowsAndRetire() {
+		final EventQueue eQ = new EventQueue();
+		final Floor floor = new Floor(eQ, 1, 0, 0, 9);
+		final RiderStore store = new RiderStore();
+		store.ensureSize(3);
+		assertEquals(3, store.size());
+		final Person person = new Person(eQ, floor, () -> {
+		});
+		store.set(40, person);
+		assertEquals(41, store.size());
+		assertEquals(0, store.getWaitingTime(2));
+
+		eQ.processEventsUpTo(1000);
+		person.setDestination(new Floor(eQ, 2, 1, 10, 9));
+		assertTrue(person.isWaiting());
+		assertFalse(store.isQuiescent());
+		eQ.processEventsUpTo(4000);
+		store.retire(40);
+		assertTrue(store.isQuiescent());
+		eQ.processEventsUpTo(9000);
+		// the times when it left, the wait had not ended yet
+		assertEquals(0, store.getWaitingTime(40));
+		assertEquals(0, store.getTravelTime(40));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testRowTaken() {
+		final EventQueue eQ = new EventQueue();
+		final Floor floor = new Floor(eQ, 1, 0, 0, 9);
+		final RiderStore store = new RiderStore();
+		store.set(0, new Person(eQ, floor, () -> {
+		}));
+		store.retire(0);
+		store.set(0, new Person(eQ, floor, () -> {
+		}));
+	}
+}
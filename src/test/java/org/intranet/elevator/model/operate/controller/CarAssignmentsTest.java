@@ -7,6 +7,7 @@ package org.intranet.elevator.model.operate.controller;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -311,4 +312,143 @@ public class CarAssignmentsTest {
 		assertFalse(a.contains(this.up1));
 		assertTrue(a.contains(this.up2));
 	}
+
+	@Test
+	final public void testOrdinals() {
+		// up the floors from 0, then down again from the top floor
+		final CarAssignments a = new CarAssignments();
+		assertEquals(0, a.ordinal(this.floors, this.floor1, Direction.UP));
+		assertEquals(3, a.ordinal(this.floors, this.floor4, Direction.UP));
+		assertEquals(4, a.ordinal(this.floors, this.floor4, Direction.DOWN));
+		assertEquals(7, a.ordinal(this.floors, this.floor1, Direction.DOWN));
+		// a base without direction counts as going up
+		assertEquals(0, a.ordinal(this.floors, this.floor1, Direction.NONE));
+		assertEquals(2, a.ordinal(this.floors, this.floor3, Direction.NONE));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	final public void testOrdinalOfUnservicedFloor() {
+		final CarAssignments a = new CarAssignments();
+		a.ordinal(this.floors, new Floor(this.eQ, 5, 40, 50), Direction.UP);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	final public void testAddUnservicedFloor() {
+		final CarAssignments a = new CarAssignments();
+		a.addAssignment(this.floors, this.base, new Assignment(new Floor(this.eQ, 5, 40, 50), Direction.UP));
+	}
+
+	@Test
+	final public void testContainsUnservicedFloor() {
+		final CarAssignments a = new CarAssignments();
+		a.addAssignment(this.floors, this.base, this.up1);
+		assertFalse(a.contains(new Assignment(new Floor(this.eQ, 5, 40, 50), Direction.UP)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	final public void testAddNone() {
+		final CarAssignments a = new CarAssignments();
+		a.addAssignment(this.floors, this.base, new Assignment(this.floor2, Direction.NONE));
+	}
+
+	@Test
+	final public void testContainsNone() {
+		// NONE is not a stop, even where the car stops going up
+		final CarAssignments a = new CarAssignments();
+		a.addAssignment(this.floors, this.base, this.up1);
+		assertTrue(a.contains(this.up1));
+		assertFalse(a.contains(this.base));
+	}
+
+	@Test
+	final public void testInsertionIndex() {
+		// base = 2UP, list: 4UP, 3DOWN, 1DOWN
+		final CarAssignments a = new CarAssignments();
+		a.addAssignment(this.floors, this.up2, this.up4);
+		a.addAssignment(this.floors, this.up2, this.down3);
+		a.addAssignment(this.floors, this.up2, this.down1);
+		final int base2 = a.ordinal(this.floors, this.floor2, Direction.UP);
+		// the base itself comes first
+		assertEquals(0, a.getInsertionIndex(base2, base2));
+		assertEquals(0, a.getInsertionIndex(base2, a.ordinal(this.floors, this.floor3, Direction.UP)));
+		assertEquals(1, a.getInsertionIndex(base2, a.ordinal(this.floors, this.floor4, Direction.DOWN)));
+		assertEquals(2, a.getInsertionIndex(base2, a.ordinal(this.floors, this.floor2, Direction.DOWN)));
+		// behind the base, after going around
+		assertEquals(3, a.getInsertionIndex(base2, a.ordinal(this.floors, this.floor1, Direction.UP)));
+	}
+
+	@Test
+	final public void testAddOrdinals() {
+		// the same list as testWrapAroundDown, made from ordinals
+		final CarAssignments a = new CarAssignments();
+		final int base2 = a.ordinal(this.floors, this.floor2, Direction.DOWN);
+		a.addAssignment(base2, a.ordinal(this.floors, this.floor1, Direction.DOWN));
+		a.addAssignment(base2, a.ordinal(this.floors, this.floor3, Direction.DOWN));
+		a.addAssignment(base2, a.ordinal(this.floors, this.floor2, Direction.UP));
+		a.addAssignment(base2, a.ordinal(this.floors, this.floor4, Direction.DOWN));
+		// again, no effect
+		a.addAssignment(base2, a.ordinal(this.floors, this.floor3, Direction.DOWN));
+		assertEquals(4, a.size());
+		assertEquals(this.down1, a.get(0));
+		assertEquals(this.up2, a.get(1));
+		assertEquals(this.down4, a.get(2));
+		assertEquals(this.down3, a.get(3));
+		assertTrue(a.contains(a.ordinal(this.floors, this.floor4, Direction.DOWN)));
+		assertFalse(a.contains(a.ordinal(this.floors, this.floor4, Direction.UP)));
+	}
+
+	@Test
+	final public void testVersion() {
+		final CarAssignments a = new CarAssignments();
+		final int empty = a.getVersion();
+		a.addAssignment(this.floors, this.base, this.up1);
+		final int one = a.getVersion();
+		assertNotEquals(empty, one);
+		// adding what is there already is no change
+		a.addAssignment(this.floors, this.base, this.up1);
+		assertEquals(one, a.getVersion());
+		a.removeAssignment(this.up1);
+		assertNotEquals(one, a.getVersion());
+	}
+
+	@Test
+	final public void testSetFloors() {
+		// a floor on top moves all the DOWN ordinals
+		final CarAssignments a = new CarAssignments();
+		final List<Floor> serviced = new ArrayList<>(this.floors);
+		a.addAssignment(serviced, this.up1, this.up2);
+		a.addAssignment(serviced, this.up1, this.down3);
+		assertEquals(5, a.ordinal(serviced, this.floor3, Direction.DOWN));
+		final Floor floor5 = new Floor(this.eQ, 5, 40, 50);
+		serviced.add(floor5);
+		a.setFloors(serviced);
+		assertEquals(7, a.ordinal(serviced, this.floor3, Direction.DOWN));
+		assertTrue(a.contains(7));
+		assertFalse(a.contains(5));
+		assertEquals(this.up2, a.get(0));
+		assertEquals(this.down3, a.get(1));
+		// and the new floor goes in its place
+		a.addAssignment(serviced, this.up1, new Assignment(floor5, Direction.DOWN));
+		assertEquals(this.up2, a.get(0));
+		assertEquals(new Assignment(floor5, Direction.DOWN), a.get(1));
+		assertEquals(this.down3, a.get(2));
+	}
+
+	@Test
+	final public void testSetOtherFloors() {
+		// another list of the same floors, in a building with one more at the
+		// bottom
+		final CarAssignments a = new CarAssignments();
+		a.addAssignment(this.floors, this.up1, this.up3);
+		a.addAssignment(this.floors, this.up1, this.down2);
+		final List<Floor> serviced = new ArrayList<>();
+		serviced.add(new Floor(this.eQ, 0, -10, 0));
+		serviced.addAll(this.floors);
+		a.setFloors(serviced);
+		assertTrue(a.contains(this.up3));
+		assertTrue(a.contains(this.down2));
+		assertTrue(a.contains(a.ordinal(serviced, this.floor3, Direction.UP)));
+		assertEquals(this.up3, a.get(0));
+		assertEquals(this.down2, a.get(1));
+	}
 }
@@ -0,0 +1,160 @@
+package org.intranet.elevator.model.operate.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.intranet.elevator.model.Car;
+import org.intranet.elevator.model.Floor;
+import org.intranet.sim.event.EventQueue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the cost a {@link CarController} gives for a new stop.
+ */
+public class CarControllerTest {
+	private EventQueue eQ;
+	private List<Floor> floors;
+	private Car car;
+	private CarController controller;
+	/**
+	 * The stops of the controller, added the same way.
+	 */
+	private CarAssignments stops;
+
+	@Before
+	public void setUp() {
+		this.eQ = new EventQueue();
+		this.floors = new ArrayList<>();
+		for (int number = 1; number <= 6; number++) {
+			this.floors.add(new Floor(this.eQ, number, (number - 1) * 10.0f, 10.0f));
+		}
+		// idle at floor 2
+		this.car = new Car(this.eQ, "0", 0, 10.0f, 8);
+		for (final Floor floor : this.floors) {
+			this.car.getFloorRequestPanel().addServicedFloor(floor);
+			floor.createCarEntrance(this.car);
+		}
+		this.controller = new CarController(this.car, 3.0f);
+		this.stops = new CarAssignments();
+	}
+
+	private Floor floor(final int number) {
+		return this.floors.get(number - 1);
+	}
+
+	/**
+	 * Going to floor 3 first, with more stops the car will make after that:
+	 * 3UP, 5UP, 4DOWN, 2DOWN, 1UP.
+	 *
+	 * @param base where the car can stop first while the stops are added
+	 */
+	private void addStops(final Assignment base) {
+		add(base, floor(3), Direction.UP);
+		add(base, floor(1), Direction.UP);
+		add(base, floor(4), Direction.DOWN);
+		add(base, floor(5), Direction.UP);
+		add(base, floor(2), Direction.DOWN);
+		assertEquals("3UP,5UP,4DOWN,2DOWN,1UP", this.stops.toString());
+	}
+
+	private void add(final Assignment base, final Floor floor, final Direction direction) {
+		this.controller.addDestination(floor, direction);
+		this.stops.addAssignment(this.floors, base, new Assignment(floor, direction));
+	}
+
+	/**
+	 * The cost as it was computed before the legs were cached: the stops are
+	 * cloned with the new one included, and the travel time is summed from the
+	 * car along all of them.
+	 */
+	private float getClonedCost(final Floor floor, final Direction direction, final Assignment base) {
+		final Assignment a = new Assignment(floor, direction);
+		if (this.stops.getCurrentAssignment() == null) {
+			return this.car.getTravelTime(floor);
+		}
+		if (this.stops.contains(a)) {
+			return 0.0F;
+		}
+		float cost = 0.0F;
+		float currentHeight = this.car.getHeight();
+		for (final Iterator<Assignment> allDestinations = this.stops.iteratorIncluding(this.floors, base,
+				a); allDestinations.hasNext();) {
+			final float nextHeight = allDestinations.next().getDestination().getHeight();
+			cost += floor.getCarEntranceForCar(this.car).getDoor().getMinimumCycleTime();
+			cost += this.car.getTravelTime(nextHeight - currentHeight);
+			currentHeight = nextHeight;
+		}
+		cost += this.car.getTravelTime(floor.getHeight() - currentHeight);
+		return cost;
+	}
+
+	/**
+	 * Every floor and direction goes somewhere in the stops: in front, in the
+	 * middle, at the end, or it is there already. The cost must be the same to
+	 * the bit.
+	 */
+	private void assertCosts(final Assignment base) {
+		for (final Floor floor : this.floors) {
+			for (final Direction direction : new Direction[] { Direction.UP, Direction.DOWN }) {
+				final float expected = getClonedCost(floor, direction, base);
+				final float cost = this.controller.getCost(floor, direction);
+				assertEquals(floor + " " + direction, Float.floatToIntBits(expected), Float.floatToIntBits(cost));
+			}
+		}
+	}
+
+	@Test
+	public void testNoStops() {
+		assertCosts(new Assignment(floor(2), Direction.NONE));
+	}
+
+	@Test
+	public void testMoving() {
+		addStops(new Assignment(floor(3), Direction.UP));
+		this.eQ.processEventsUpTo(600);
+		assertNull(this.car.getLocation());
+		assertNull(this.car.getFloorAt());
+		// floor 3 is the destination, so the car stops there
+		assertCosts(new Assignment(floor(3), Direction.UP));
+	}
+
+	@Test
+	public void testMovingBeforeAFloor() {
+		// from floor 1, so the car can still stop at floor 2 on its way
+		this.car.setHeight(0.0f);
+		addStops(new Assignment(floor(2), Direction.UP));
+		this.eQ.processEventsUpTo(600);
+		assertNull(this.car.getLocation());
+		assertTrue(this.car.getHeight() > 0.0f && this.car.getHeight() < 7.0f);
+		assertCosts(new Assignment(floor(2), Direction.UP));
+	}
+
+	@Test
+	public void testDocked() {
+		addStops(new Assignment(floor(3), Direction.UP));
+		this.eQ.processEventsUpTo(5000);
+		assertSame(floor(3), this.car.getLocation());
+		// the entrance shows no direction, the car goes up
+		assertCosts(new Assignment(floor(3), Direction.UP));
+
+		floor(3).getCarEntranceForCar(this.car).setDown(true);
+		assertCosts(new Assignment(floor(3), Direction.DOWN));
+	}
+
+	@Test
+	public void testIdle() {
+		addStops(new Assignment(floor(3), Direction.UP));
+		this.eQ.processEventsUpTo(5000);
+		this.car.undock();
+		assertNotNull(this.car.getFloorAt());
+		assertCosts(new Assignment(floor(3), Direction.UP));
+	}
+}
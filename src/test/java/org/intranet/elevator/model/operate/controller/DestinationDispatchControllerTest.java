@@ -0,0 +1,138 @@
+package org.intranet.elevator.model.operate.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.intranet.elevator.model.Car;
+import org.intranet.elevator.model.CarEntrance;
+import org.intranet.elevator.model.Floor;
+import org.intranet.elevator.model.operate.Building;
+import org.intranet.sim.event.Event;
+import org.intranet.sim.event.EventQueue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link DestinationDispatchController}.
+ */
+public class DestinationDispatchControllerTest {
+	/**
+	 * Rider that remembers the car they entered, and clears the door a second
+	 * later.
+	 */
+	private final class Rider implements Floor.WaitingRider {
+		private Car car;
+
+		@Override
+		public void enterCar(final CarEntrance entrance) {
+			this.car = (Car) entrance.getDoor().getTo();
+			entrance.getDoorSensor().obstruct();
+			final EventQueue eQ = DestinationDispatchControllerTest.this.eQ;
+			eQ.addEvent(new Event(eQ.getCurrentTime() + 1000) {
+				@Override
+				public void perform() {
+					entrance.getDoorSensor().unobstruct();
+				}
+			});
+		}
+	}
+
+	private EventQueue eQ;
+	private Building building;
+	private Car first;
+	private Car second;
+
+	@Before
+	public void setUp() {
+		this.eQ = new EventQueue();
+		this.building = new Building(this.eQ, 6, 2, 8, new DestinationDispatchController());
+		this.first = this.building.getCar(0);
+		this.second = this.building.getCar(1);
+	}
+
+	private Floor floor(final int number) {
+		return this.building.getFloor(number - 1);
+	}
+
+	private Rider call(final int from, final int to) {
+		final Rider rider = new Rider();
+		floor(from).waitForCar(rider, to > from, floor(to));
+		return rider;
+	}
+
+	@Test
+	public void testCallWaitsForTheWindow() {
+		this.second.setHeight(floor(6).getHeight());
+		final Rider rider = call(3, 5);
+		assertTrue(floor(3).getCallPanel().isUp());
+		this.eQ.processEventsUpTo(DestinationDispatchController.WINDOW - 1);
+		assertNull(this.first.getDestination());
+		assertNull(this.second.getDestination());
+
+		this.eQ.processEventsUpTo(DestinationDispatchController.WINDOW);
+		assertSame(floor(3), this.first.getDestination());
+		assertNull(this.second.getDestination());
+		assertEquals(0, floor(3).getUnassignedRiderCount(true));
+		this.eQ.processEventsUpTo(30000);
+		assertSame(this.first, rider.car);
+	}
+
+	@Test
+	public void testCallWithoutDestination() {
+		floor(4).waitForCar(new Rider(), false);
+		assertSame(floor(4), this.first.getDestination());
+	}
+
+	@Test
+	public void testGroupsByOriginAndDirection() {
+		this.second.setHeight(floor(6).getHeight());
+		final Rider toFive = call(3, 5);
+		final Rider toSix = call(3, 6);
+		final Rider down = call(3, 1);
+		final Rider other = call(2, 6);
+		this.eQ.processEventsUpTo(DestinationDispatchController.WINDOW);
+		assertEquals(0, floor(3).getUnassignedRiderCount(true));
+		assertEquals(0, floor(3).getUnassignedRiderCount(false));
+		assertEquals(0, floor(2).getUnassignedRiderCount(true));
+
+		this.eQ.processEventsUpTo(60000);
+		// up and down from floor 3 are not the same group, but both destinations
+		// up are
+		assertSame(toFive.car, toSix.car);
+		assertTrue(down.car != null && other.car != null);
+	}
+
+	@Test
+	public void testLargestGroupFirst() {
+		// both cars are as far from floor 3, so the first group gets the first car
+		this.second.setHeight(floor(5).getHeight());
+		final Rider up = call(3, 4);
+		final Rider down = call(3, 2);
+		final Rider downToo = call(3, 1);
+		final Rider downAgain = call(3, 1);
+		this.eQ.processEventsUpTo(60000);
+		// the three riders going down came later, but choose first
+		assertSame(this.first, down.car);
+		assertSame(this.first, downToo.car);
+		assertSame(this.first, downAgain.car);
+		assertSame(this.second, up.car);
+	}
+
+	@Test
+	public void testPromisedDestination() {
+		this.second.setHeight(floor(2).getHeight());
+		final Rider rider = call(1, 6);
+		this.eQ.processEventsUpTo(30000);
+		assertSame(this.first, rider.car);
+		assertSame(floor(1), this.first.getFloorAt());
+
+		// the second car is closer, but the first one was given riders for floor 6
+		// already: the rider did not press a button in the car, so only the
+		// promise saves the first car a stop
+		final Rider next = call(3, 6);
+		this.eQ.processEventsUpTo(60000);
+		assertSame(this.first, next.car);
+	}
+}
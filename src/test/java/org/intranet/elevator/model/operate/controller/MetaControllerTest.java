@@ -0,0 +1,168 @@
+package org.intranet.elevator.model.operate.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.intranet.elevator.MorningTrafficElevatorSimulator;
+import org.intranet.elevator.RandomElevatorSimulator;
+import org.intranet.elevator.model.Car;
+import org.intranet.elevator.model.Floor;
+import org.intranet.sim.Simulator;
+import org.intranet.sim.batch.ParameterSweep;
+import org.intranet.sim.event.EventQueue;
+import org.intranet.statistics.Column;
+import org.intranet.statistics.Table;
+import org.intranet.ui.FloatParameter;
+import org.intranet.ui.IntegerParameter;
+import org.intranet.ui.LongParameter;
+import org.intranet.ui.Parameter;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link MetaController}.
+ */
+public class MetaControllerTest {
+	private static String toString(final List<Table> tables) {
+		final StringBuilder sb = new StringBuilder();
+		for (final Table t : tables) {
+			sb.append(t.getName()).append('\n');
+			for (int c = 0; c < t.getColumnCount(); c++) {
+				final Column column = t.getColumn(c);
+				sb.append(column.getHeading()).append(':');
+				for (int i = 0; i < column.getValueCount(); i++) {
+					sb.append(' ').append(column.getValue(i));
+				}
+				sb.append('\n');
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @return the statistics of each run, in the order of the parameter sets.
+	 */
+	private static List<String> run(final Simulator prototype, final List<List<Parameter>> sets)
+			throws InterruptedException {
+		final String[] results = new String[sets.size()];
+		final boolean succeeded = new ParameterSweep(prototype, 1).run(sets.iterator(),
+				new ParameterSweep.Listener() {
+					@Override
+					public void runFinished(final List<Parameter> params, final Simulator simulator,
+							final List<Table> statistics) {
+						results[sets.indexOf(params)] = MetaControllerTest.toString(statistics);
+					}
+
+					@Override
+					public void runFailed(final List<Parameter> params, final Exception e) {
+						throw new IllegalStateException(e);
+					}
+				});
+		assertTrue(succeeded);
+		return Arrays.asList(results);
+	}
+
+	private static List<Controller> controllers(final int parallelCars) {
+		return Collections.<Controller>singletonList(new MetaController(parallelCars));
+	}
+
+	@Test
+	public void testRandomParallelSameAsSerial() throws InterruptedException {
+		final List<List<Parameter>> sets = new ArrayList<>();
+		for (long seed = 1; seed <= 3; seed++) {
+			sets.add(Arrays.<Parameter>asList(new IntegerParameter(Simulator.Keys.FLOORS, 10),
+					new IntegerParameter(Simulator.Keys.CARS, 4), new IntegerParameter(Simulator.Keys.PEOPLE, 60),
+					new LongParameter(Simulator.Keys.INSERTIONTIME, 300000L),
+					new LongParameter(Simulator.Keys.RANDOMSEED, seed)));
+		}
+		final List<String> parallel = run(new RandomElevatorSimulator(controllers(2)), sets);
+		final List<String> serial = run(new RandomElevatorSimulator(controllers(Integer.MAX_VALUE)), sets);
+		assertEquals(serial, parallel);
+	}
+
+	@Test
+	public void testMorningParallelSameAsSerial() throws InterruptedException {
+		final List<List<Parameter>> sets = new ArrayList<>();
+		for (long seed = 1; seed <= 3; seed++) {
+			sets.add(Arrays.<Parameter>asList(new IntegerParameter(Simulator.Keys.FLOORS, 10),
+					new IntegerParameter(Simulator.Keys.CARS, 4),
+					new IntegerParameter(Simulator.Keys.NPEOPLEPERFLOOR, 6),
+					new FloatParameter(Simulator.Keys.INSERTIONTIMEHR, 0.1f),
+					new IntegerParameter(Simulator.Keys.STANDARDDEV, 1),
+					new LongParameter(Simulator.Keys.RANDOMSEED, seed)));
+		}
+		final List<String> parallel = run(new MorningTrafficElevatorSimulator(controllers(2)), sets);
+		final List<String> serial = run(new MorningTrafficElevatorSimulator(controllers(Integer.MAX_VALUE)), sets);
+		assertEquals(serial, parallel);
+	}
+
+	@Test
+	public void testCarsWithOtherIndex() {
+		final EventQueue eQ = new EventQueue();
+		final List<Floor> floors = new ArrayList<>();
+		for (int number = 1; number <= 4; number++) {
+			floors.add(new Floor(eQ, number, (number - 1) * 10.0f, 10.0f));
+		}
+		// the second car has the index of the first, as in another building, and
+		// the third has none
+		final Car first = new Car(eQ, "first", 0, 0.0f, 8);
+		final Car second = new Car(eQ, "second", 0, 20.0f, 8);
+		final Car third = new Car(eQ, "third", 30.0f, 8);
+		final MetaController controller = new MetaController();
+		controller.initialize(eQ);
+		for (final Car car : Arrays.asList(first, second, third)) {
+			for (final Floor floor : floors) {
+				car.getFloorRequestPanel().addServicedFloor(floor);
+				floor.createCarEntrance(car);
+			}
+			controller.addCar(car, 3.0f);
+		}
+
+		// each call goes to the car already there
+		controller.requestCar(floors.get(0), Direction.UP);
+		controller.requestCar(floors.get(2), Direction.UP);
+		controller.requestCar(floors.get(3), Direction.DOWN);
+		eQ.processEventsUpTo(1000);
+		assertSame(floors.get(0), first.getLocation());
+		assertSame(floors.get(2), second.getLocation());
+		assertSame(floors.get(3), third.getLocation());
+
+		// the controller of another car would have no stop to remove
+		assertTrue(controller.arrive(first));
+		assertTrue(controller.arrive(second));
+		assertFalse(controller.arrive(third));
+	}
+
+	@Test
+	public void testOppositeCallKeptForWaitingRiders() {
+		final EventQueue eQ = new EventQueue();
+		final List<Floor> floors = new ArrayList<>();
+		for (int number = 1; number <= 4; number++) {
+			floors.add(new Floor(eQ, number, (number - 1) * 10.0f, 10.0f));
+		}
+		final Floor three = floors.get(2);
+		final Car car = new Car(eQ, "car", 0, 0.0f, 8);
+		final MetaController controller = new MetaController();
+		controller.initialize(eQ);
+		for (final Floor floor : floors) {
+			car.getFloorRequestPanel().addServicedFloor(floor);
+			floor.createCarEntrance(car);
+		}
+		controller.addCar(car, 3.0f);
+		three.waitForCar(entrance -> entrance.getDoorSensor().obstruct(), true);
+
+		controller.requestCar(three, Direction.UP);
+		controller.requestCar(three, Direction.DOWN);
+		eQ.processEventsUpTo(20000);
+		assertSame(three, car.getLocation());
+		// the rider going up gets the car before it turns down
+		assertTrue(controller.arrive(car));
+		assertFalse(controller.arrive(car));
+	}
+}
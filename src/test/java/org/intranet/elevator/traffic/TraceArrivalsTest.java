@@ -0,0 +1,121 @@
+package org.intranet.elevator.traffic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.intranet.elevator.model.Floor;
+import org.intranet.elevator.model.operate.Building;
+import org.intranet.elevator.model.operate.controller.MetaController;
+import org.intranet.sim.event.EventQueue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for the {@link TraceArrivals}.
+ */
+public class TraceArrivalsTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final Building building = new Building(new EventQueue(), 5, 1, new MetaController());
+
+	private void assertTrip(final TraceArrivals trips, final long time, final int origin, final int destination) {
+		assertTrue(trips.next());
+		assertEquals(time, trips.getTime());
+		assertEquals(this.building.getFloor(origin), trips.getStartingFloor());
+		assertEquals(this.building.getFloor(destination), trips.getDestination());
+	}
+
+	@Test
+	public void testCsv() throws IOException {
+		final File file = this.folder.newFile("trips.csv");
+		Files.write(file.toPath(),
+				"time,origin,destination\r\n1000,0,4\r\n1000, 0 ,3\r\n\r\n25000,4,0\n123456,2,1".getBytes(
+						StandardCharsets.US_ASCII));
+		// a window of 30 bytes makes most lines continue in the next window
+		final TraceArrivals trips = new TraceArrivals(this.building, file, 30);
+		assertTrip(trips, 1000, 0, 4);
+		assertEquals(0, trips.getIndex());
+		assertTrip(trips, 1000, 0, 3);
+		assertTrip(trips, 25000, 4, 0);
+		assertTrip(trips, 123456, 2, 1);
+		assertEquals(3, trips.getIndex());
+		assertFalse(trips.next());
+		assertFalse(trips.next());
+	}
+
+	@Test
+	public void testBinary() throws IOException {
+		final File file = this.folder.newFile("trips.bin");
+		try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+			for (int i = 0; i < 5; i++) {
+				out.writeLong(i * 1000L);
+				out.writeInt(i);
+				out.writeInt((i + 1) % 5);
+			}
+		}
+		// two records per window
+		final TraceArrivals trips = new TraceArrivals(this.building, file, 40);
+		for (int i = 0; i < 5; i++) {
+			assertTrip(trips, i * 1000L, i, (i + 1) % 5);
+		}
+		assertFalse(trips.next());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNotSorted() throws IOException {
+		final File file = this.folder.newFile("trips.csv");
+		Files.write(file.toPath(), "2000,0,1\n1000,1,0\n".getBytes(StandardCharsets.US_ASCII));
+		final TraceArrivals trips = new TraceArrivals(this.building, file);
+		assertTrue(trips.next());
+		trips.next();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadLine() throws IOException {
+		final File file = this.folder.newFile("trips.csv");
+		Files.write(file.toPath(), "2000,0\n".getBytes(StandardCharsets.US_ASCII));
+		new TraceArrivals(this.building, file).next();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSameFloor() throws IOException {
+		final File file = this.folder.newFile("trips.csv");
+		Files.write(file.toPath(), "1000,0,1\n2000,3,3\n".getBytes(StandardCharsets.US_ASCII));
+		final TraceArrivals trips = new TraceArrivals(this.building, file);
+		assertTrue(trips.next());
+		trips.next();
+	}
+
+	@Test
+	public void testSampleReplays() throws IOException {
+		final File file = this.folder.newFile("trips.csv");
+		try (InputStream sample = TraceArrivals.class.getResourceAsStream("trips.csv")) {
+			Files.copy(sample, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		final EventQueue queue = new EventQueue();
+		final Building sampleBuilding = new Building(queue, 10, 3, 8, new MetaController());
+		ArrivalScheduler.start(sampleBuilding, queue, new TraceArrivals(sampleBuilding, file), true);
+		for (long time = queue.getNextEventTime(); time != Long.MAX_VALUE; time = queue.getNextEventTime()) {
+			queue.processEventsUpTo(time);
+		}
+		// every rider got a car
+		for (int i = 0; i < sampleBuilding.getNumFloors(); i++) {
+			final Floor floor = sampleBuilding.getFloor(i);
+			assertEquals(0, floor.getWaitingRiderCount(true));
+			assertEquals(0, floor.getWaitingRiderCount(false));
+			assertEquals(0, floor.getOccupantCount());
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package org.intranet.elevator.traffic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.intranet.elevator.model.operate.Building;
+import org.intranet.elevator.model.operate.controller.MetaController;
+import org.intranet.sim.event.EventQueue;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link TrafficProfile} and its {@link PoissonArrivals}.
+ */
+public class TrafficProfileTest {
+	private static final String PROFILE = "# test\n" + "interval 15\n" + "intervals 4\n"
+			+ "1 0 3 3000 # up peak\n" + "1 0 2 1000\n" + "3 2 0 400\n" + "3 2 0 400\n";
+
+	@Test
+	public void testRead() throws IOException {
+		final TrafficProfile profile = TrafficProfile.read(new StringReader(PROFILE));
+		assertEquals(15 * 60 * 1000, profile.getIntervalLength());
+		assertEquals(4, profile.getIntervalCount());
+		assertEquals(4, profile.getFloorCount());
+		assertEquals(0, profile.getRate(0), 0);
+		assertEquals(4000.0 / 3600 / 1000, profile.getRate(1), 1e-12);
+		assertEquals(800.0 / 3600 / 1000, profile.getRate(3), 1e-12);
+		assertEquals(3, profile.getDestination(profile.pickPair(1, 0.7)));
+		assertEquals(2, profile.getDestination(profile.pickPair(1, 0.8)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSameFloor() throws IOException {
+		TrafficProfile.read(new StringReader("interval 15\n0 2 2 10\n"));
+	}
+
+	@Test
+	public void testArrivals() throws IOException {
+		final TrafficProfile profile = TrafficProfile.read(new StringReader(PROFILE));
+		final Building building = new Building(new EventQueue(), 4, 1, new MetaController());
+		final PoissonArrivals arrivals = new PoissonArrivals(building, profile, new Random(1));
+		final long interval = profile.getIntervalLength();
+		final int[] perInterval = new int[4];
+		long last = 0;
+		int count = 0;
+		while (arrivals.next()) {
+			assertTrue(arrivals.getTime() >= last);
+			last = arrivals.getTime();
+			assertEquals(count++, arrivals.getIndex());
+			perInterval[(int) (last / interval)]++;
+			if (last < 2 * interval) {
+				assertEquals(building.getFloor(0), arrivals.getStartingFloor());
+			} else {
+				assertEquals(building.getFloor(0), arrivals.getDestination());
+			}
+		}
+		assertFalse(arrivals.next());
+		assertEquals(0, perInterval[0]);
+		assertEquals(0, perInterval[2]);
+		// 1000 and 200 expected, the standard deviation is about 32 and 14
+		assertEquals(1000, perInterval[1], 130);
+		assertEquals(200, perInterval[3], 60);
+	}
+
+	@Test
+	public void testSample() throws IOException {
+		try (Reader sample = new InputStreamReader(TrafficProfile.class.getResourceAsStream("traffic-profile.txt"),
+				StandardCharsets.UTF_8)) {
+			final TrafficProfile profile = TrafficProfile.read(sample);
+			assertEquals(10, profile.getFloorCount());
+			assertEquals(8, profile.getIntervalCount());
+			assertTrue(profile.getMaxRate() > 0);
+		}
+	}
+}
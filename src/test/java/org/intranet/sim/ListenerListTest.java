@@ -0,0 +1,60 @@
+package org.intranet.sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests for the {@link ListenerList}.
+ */
+public class ListenerListTest {
+	@Test
+	public void testAddRemove() {
+		final ListenerList<Runnable> list = new ListenerList<>(Runnable.class);
+		assertTrue(list.isEmpty());
+		final Runnable a = () -> {
+		};
+		final Runnable b = () -> {
+		};
+		list.add(a);
+		list.add(b);
+		list.add(a);
+		list.remove(a);
+		assertEquals(2, list.getListeners().length);
+		assertSame(b, list.getListeners()[0]);
+		assertSame(a, list.getListeners()[1]);
+		list.remove(b);
+		list.remove(b);
+		list.remove(a);
+		assertTrue(list.isEmpty());
+	}
+
+	@Test
+	public void testChangeWhileNotifying() {
+		final ListenerList<Runnable> list = new ListenerList<>(Runnable.class);
+		final StringBuilder calls = new StringBuilder();
+		final Runnable last = () -> calls.append("last ");
+		list.add(new Runnable() {
+			@Override
+			public void run() {
+				calls.append("first ");
+				list.remove(this);
+				list.remove(last);
+				list.add(() -> calls.append("added "));
+			}
+		});
+		list.add(last);
+
+		// the notification goes to the listeners at the start
+		for (final Runnable r : list.getListeners()) {
+			r.run();
+		}
+		assertEquals("first last ", calls.toString());
+		for (final Runnable r : list.getListeners()) {
+			r.run();
+		}
+		assertEquals("first last added ", calls.toString());
+	}
+}
@@ -0,0 +1,96 @@
+package org.intranet.sim.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.intranet.elevator.RandomElevatorSimulator;
+import org.intranet.elevator.model.operate.controller.Controller;
+import org.intranet.elevator.model.operate.controller.MetaController;
+import org.intranet.sim.Simulator;
+import org.intranet.statistics.Column;
+import org.intranet.statistics.Table;
+import org.intranet.ui.IntegerParameter;
+import org.intranet.ui.LongParameter;
+import org.intranet.ui.Parameter;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link ParameterSweep}.
+ */
+public class ParameterSweepTest {
+	private static List<List<Parameter>> createParameterSets() {
+		final List<List<Parameter>> sets = new ArrayList<>();
+		for (long seed = 1; seed <= 8; seed++) {
+			sets.add(Arrays.<Parameter>asList(new IntegerParameter(Simulator.Keys.FLOORS, 8),
+					new IntegerParameter(Simulator.Keys.CARS, 2), new IntegerParameter(Simulator.Keys.PEOPLE, 30),
+					new LongParameter(Simulator.Keys.INSERTIONTIME, 100000L),
+					new LongParameter(Simulator.Keys.RANDOMSEED, seed)));
+		}
+		return sets;
+	}
+
+	private static String toString(final List<Table> tables) {
+		final StringBuilder sb = new StringBuilder();
+		for (final Table t : tables) {
+			sb.append(t.getName()).append('\n');
+			for (int c = 0; c < t.getColumnCount(); c++) {
+				final Column column = t.getColumn(c);
+				sb.append(column.getHeading()).append(':');
+				for (int i = 0; i < column.getValueCount(); i++) {
+					sb.append(' ').append(column.getValue(i));
+				}
+				sb.append('\n');
+			}
+		}
+		return sb.toString();
+	}
+
+	private static Map<List<Parameter>, String> sweep(final List<List<Parameter>> sets, final int threads,
+			final Set<Controller> controllers) throws InterruptedException {
+		final List<Controller> available = new ArrayList<>();
+		available.add(new MetaController());
+		final Simulator prototype = new RandomElevatorSimulator(available);
+		final Map<List<Parameter>, String> results = new HashMap<>();
+		final boolean succeeded = new ParameterSweep(prototype, threads).run(sets.iterator(),
+				new ParameterSweep.Listener() {
+					@Override
+					public void runFinished(final List<Parameter> params, final Simulator simulator,
+							final List<Table> statistics) {
+						synchronized (results) {
+							assertNotSame(prototype, simulator);
+							controllers.add(simulator.getCurrentController());
+							results.put(params, ParameterSweepTest.toString(statistics));
+						}
+					}
+
+					@Override
+					public void runFailed(final List<Parameter> params, final Exception e) {
+						throw new IllegalStateException(e);
+					}
+				});
+		assertTrue(succeeded);
+		return results;
+	}
+
+	@Test
+	public void testParallelSameAsSequential() throws InterruptedException {
+		final List<List<Parameter>> sets = createParameterSets();
+		final Set<Controller> controllers = new HashSet<>();
+		final Map<List<Parameter>, String> sequential = sweep(sets, 1, controllers);
+		final Map<List<Parameter>, String> parallel = sweep(sets, 4, controllers);
+
+		assertEquals(sets.size(), sequential.size());
+		assertEquals(sequential, parallel);
+		// every run had its own controller
+		assertEquals(2 * sets.size(), controllers.size());
+	}
+}
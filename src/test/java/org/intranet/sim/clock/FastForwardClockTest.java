@@ -0,0 +1,89 @@
+package org.intranet.sim.clock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.intranet.sim.event.EventQueue;
+import org.intranet.sim.event.TestEvent;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link FastForwardClock}.
+ */
+public class FastForwardClockTest {
+	private static class QueueFeedback implements Clock.FeedbackListener {
+		private final EventQueue queue;
+		private final boolean quiescent;
+
+		QueueFeedback(final EventQueue queue, final boolean quiescent) {
+			this.queue = queue;
+			this.quiescent = quiescent;
+		}
+
+		@Override
+		public long timeUpdate(final long time) {
+			this.queue.processEventsUpTo(time);
+			return time;
+		}
+
+		@Override
+		public long getNextEventTime() {
+			return this.queue.getNextEventTime();
+		}
+
+		@Override
+		public boolean isQuiescent() {
+			return this.quiescent;
+		}
+
+		@Override
+		public long getProcessedEventCount() {
+			return this.queue.getProcessedEventCount();
+		}
+	}
+
+	private static EventQueue createQueue() {
+		final EventQueue queue = new EventQueue();
+		queue.addEvent(new TestEvent(100));
+		queue.addEvent(new TestEvent(2000));
+		queue.addEvent(new TestEvent(2000));
+		queue.addEvent(new TestEvent(50000));
+		return queue;
+	}
+
+	@Test
+	public void testRunsUntilQueueEmpty() {
+		final EventQueue queue = createQueue();
+		final FastForwardClock clock = new FastForwardClock(new QueueFeedback(queue, true), Long.MAX_VALUE);
+		clock.start();
+
+		assertFalse(clock.isRunning());
+		assertEquals(50000, clock.getEndTime());
+		assertEquals(4, clock.getProcessedEvents());
+		assertFalse(clock.isStalled());
+		assertFalse(clock.isTruncated());
+	}
+
+	@Test
+	public void testStalled() {
+		final EventQueue queue = createQueue();
+		final FastForwardClock clock = new FastForwardClock(new QueueFeedback(queue, false), Long.MAX_VALUE);
+		clock.start();
+
+		assertTrue(clock.isStalled());
+		assertEquals(50000, clock.getEndTime());
+	}
+
+	@Test
+	public void testTruncated() {
+		final EventQueue queue = createQueue();
+		final FastForwardClock clock = new FastForwardClock(new QueueFeedback(queue, true), 10000);
+		clock.start();
+
+		assertTrue(clock.isTruncated());
+		assertEquals(10000, clock.getEndTime());
+		assertEquals(3, clock.getProcessedEvents());
+		assertEquals(1, queue.getEventList().size());
+	}
+}
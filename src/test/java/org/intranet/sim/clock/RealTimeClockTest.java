@@ -0,0 +1,152 @@
+package org.intranet.sim.clock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.intranet.sim.event.Event;
+import org.intranet.sim.event.EventQueue;
+import org.junit.Test;
+
+/**
+ * Tests for the event driven mode of the {@link RealTimeClock}.
+ */
+public class RealTimeClockTest {
+	/**
+	 * Feedback for a clock that drives an {@link EventQueue} nobody watches.
+	 */
+	private static class QueueFeedback implements Clock.FeedbackListener {
+		private final EventQueue queue;
+		final AtomicInteger updates = new AtomicInteger();
+
+		QueueFeedback(final EventQueue queue) {
+			this.queue = queue;
+		}
+
+		@Override
+		public long timeUpdate(final long time) {
+			this.updates.incrementAndGet();
+			this.queue.processEventsUpTo(time);
+			return time;
+		}
+
+		@Override
+		public long getNextEventTime() {
+			return this.queue.getNextEventTime();
+		}
+
+		@Override
+		public boolean isObserved() {
+			return false;
+		}
+	}
+
+	private static class LatchEvent extends Event {
+		final CountDownLatch performed;
+
+		LatchEvent(final long time) {
+			this(time, new CountDownLatch(1));
+		}
+
+		private LatchEvent(final long time, final CountDownLatch performed) {
+			super(time);
+			this.performed = performed;
+		}
+
+		@Override
+		public void perform() {
+			this.performed.countDown();
+		}
+
+		@Override
+		public Event setTime(final long newTime) {
+			return new LatchEvent(newTime, this.performed);
+		}
+	}
+
+	private static RealTimeClock createClock(final EventQueue queue, final QueueFeedback feedback) {
+		return createClock(queue, feedback, true);
+	}
+
+	private static RealTimeClock createClock(final EventQueue queue, final QueueFeedback feedback,
+			final boolean eventDriven) {
+		final RealTimeClock clock = new RealTimeClock(feedback, eventDriven);
+		clock.setTimeConversion(0);
+		queue.addListener(new EventQueue.Listener() {
+			@Override
+			public void eventAdded(final Event e) {
+				clock.eventScheduled(e.getTime());
+			}
+
+			@Override
+			public void eventRemoved(final Event e) {
+			}
+
+			@Override
+			public void eventError(final Exception ex) {
+			}
+		});
+		return clock;
+	}
+
+	@Test
+	public void testSleepsUntilNextEvent() throws InterruptedException {
+		final EventQueue queue = new EventQueue();
+		final QueueFeedback feedback = new QueueFeedback(queue);
+		final RealTimeClock clock = createClock(queue, feedback);
+		final LatchEvent event = new LatchEvent(300);
+		queue.addEvent(event);
+
+		clock.start();
+		try {
+			assertTrue(event.performed.await(5, TimeUnit.SECONDS));
+			Thread.sleep(500);
+			// the start, the wake up for the event, nothing while idle
+			assertEquals(2, feedback.updates.get());
+			assertTrue(clock.getSimulationTime() >= 300);
+		} finally {
+			clock.dispose();
+		}
+	}
+
+	@Test
+	public void testWakesForScheduledEvent() throws InterruptedException {
+		final EventQueue queue = new EventQueue();
+		final QueueFeedback feedback = new QueueFeedback(queue);
+		final RealTimeClock clock = createClock(queue, feedback);
+
+		clock.start();
+		try {
+			// nothing pending, the clock sleeps without a time out
+			Thread.sleep(200);
+			final LatchEvent event = new LatchEvent(queue.getCurrentTime() + 1);
+			queue.addEvent(event);
+			assertTrue(event.performed.await(5, TimeUnit.SECONDS));
+		} finally {
+			clock.dispose();
+		}
+	}
+
+	@Test
+	public void testTickingWakesForInsertedEvent() throws InterruptedException {
+		final EventQueue queue = new EventQueue();
+		final QueueFeedback feedback = new QueueFeedback(queue);
+		final RealTimeClock clock = createClock(queue, feedback, false);
+
+		clock.start();
+		try {
+			for (int n = 0; n < 5; n++) {
+				Thread.sleep(30);
+				final LatchEvent event = new LatchEvent(0);
+				queue.insertEvent(event);
+				assertTrue(event.performed.await(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			clock.dispose();
+		}
+		assertEquals(5, queue.getInsertLatencyCount());
+	}
+}
@@ -0,0 +1,83 @@
+package org.intranet.sim.clock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for clocks that share one scheduler.
+ */
+public class SharedClockFactoryTest {
+	/**
+	 * Accepts any time and remembers the threads that advanced it.
+	 */
+	private static class ThreadRecorder implements Clock.FeedbackListener {
+		final Set<Thread> threads = new HashSet<>();
+
+		@Override
+		public synchronized long timeUpdate(final long time) {
+			this.threads.add(Thread.currentThread());
+			return time;
+		}
+	}
+
+	@Test
+	public void testClocksShareScheduler() throws InterruptedException {
+		final SharedClockFactory factory = new SharedClockFactory(1);
+		try {
+			final ThreadRecorder feedback = new ThreadRecorder();
+			final List<Clock> clocks = new ArrayList<>();
+			for (int n = 0; n < 20; n++) {
+				final Clock clock = factory.createClock(feedback);
+				clock.setTimeConversion(n % 2 == 0 ? 0 : 4);
+				clocks.add(clock);
+			}
+			for (final Clock clock : clocks) {
+				clock.start();
+			}
+			Thread.sleep(350);
+			for (final Clock clock : clocks) {
+				clock.pause();
+			}
+
+			assertEquals(1, feedback.threads.size());
+			for (int n = 0; n < clocks.size(); n += 2) {
+				final long slow = clocks.get(n).getSimulationTime();
+				final long fast = clocks.get(n + 1).getSimulationTime();
+				assertTrue(slow > 0);
+				assertTrue(fast > slow);
+			}
+		} finally {
+			factory.shutdown();
+		}
+	}
+
+	@Test
+	public void testPauseStopsClock() throws InterruptedException {
+		final SharedClockFactory factory = new SharedClockFactory(2);
+		try {
+			final Clock clock = factory.createClock(new ThreadRecorder());
+			clock.setTimeConversion(0);
+			clock.start();
+			Thread.sleep(250);
+			clock.pause();
+			final long pausedTime = clock.getSimulationTime();
+			assertTrue(pausedTime >= 100);
+			Thread.sleep(250);
+			assertEquals(pausedTime, clock.getSimulationTime());
+
+			clock.start();
+			Thread.sleep(250);
+			clock.dispose();
+			assertTrue(clock.getSimulationTime() > pausedTime);
+		} finally {
+			factory.shutdown();
+		}
+	}
+}
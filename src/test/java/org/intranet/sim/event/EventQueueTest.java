@@ -1,5 +1,7 @@
 package org.intranet.sim.event;
 
+import static org.junit.Assert.assertEquals;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -94,4 +96,117 @@ public class EventQueueTest {
 			throw (errors.get(0));
 		}
 	}
+
+	/**
+	 * Only {@link IncrementalUpdateEvent}s that are still queued get their
+	 * {@link IncrementalUpdateEvent#updateTime()} called.
+	 */
+	@Test
+	public final void testUpdateOnlyPendingIncrementalEvents() {
+		final EventQueue eQ = new EventQueue();
+		final int[] updates = new int[2];
+		final IncrementalUpdateEvent kept = new IncrementalUpdateEvent(1000) {
+			@Override
+			public void updateTime() {
+				updates[0]++;
+			}
+
+			@Override
+			public void perform() {
+			}
+		};
+		final IncrementalUpdateEvent cancelled = new IncrementalUpdateEvent(1000) {
+			@Override
+			public void updateTime() {
+				updates[1]++;
+			}
+
+			@Override
+			public void perform() {
+			}
+		};
+		eQ.addEvent(cancelled);
+		eQ.addEvent(new TestEvent(100));
+		eQ.addEvent(kept);
+
+		eQ.processEventsUpTo(50);
+		eQ.removeEvent(cancelled);
+		eQ.processEventsUpTo(200);
+		eQ.processEventsUpTo(2000);
+		eQ.processEventsUpTo(3000);
+
+		// at 50, 100 and 200. At 1000 it is already taken off the queue.
+		assertEquals(3, updates[0]);
+		assertEquals(1, updates[1]);
+	}
+
+	/**
+	 * Events at the same time are performed in the order they were added to their
+	 * own queue, whatever happens in other queues.
+	 */
+	@Test
+	public final void testSequencePerQueue() {
+		final EventQueue eQ = new EventQueue();
+		final EventQueue other = new EventQueue();
+		final List<String> performed = new ArrayList<>();
+		final Event second = new Event(100) {
+			@Override
+			public void perform() {
+				performed.add("second");
+			}
+		};
+		final Event first = new Event(100) {
+			@Override
+			public void perform() {
+				performed.add("first");
+			}
+		};
+		other.addEvent(new TestEvent(100));
+		eQ.addEvent(first);
+		other.addEvent(new TestEvent(100));
+		eQ.addEvent(second);
+
+		assertEquals(0, first.getId());
+		assertEquals(1, second.getId());
+		eQ.processEventsUpTo(100);
+		assertEquals("first", performed.get(0));
+		assertEquals("second", performed.get(1));
+	}
+
+	/**
+	 * Events added ahead go before the other events at the same time, even if
+	 * they were added later, and keep their own order.
+	 */
+	@Test
+	public final void testAddEventAhead() {
+		final EventQueue eQ = new EventQueue();
+		final List<String> performed = new ArrayList<>();
+		eQ.addEvent(new Event(100) {
+			@Override
+			public void perform() {
+				performed.add("normal");
+				eQ.addEventAhead(new Event(200) {
+					@Override
+					public void perform() {
+						performed.add("second ahead");
+					}
+				});
+			}
+		});
+		eQ.addEvent(new Event(200) {
+			@Override
+			public void perform() {
+				performed.add("normal");
+			}
+		});
+		eQ.addEventAhead(new Event(200) {
+			@Override
+			public void perform() {
+				performed.add("first ahead");
+			}
+		});
+
+		eQ.processEventsUpTo(300);
+		assertEquals("[normal, first ahead, second ahead, normal]", performed.toString());
+	}
 }
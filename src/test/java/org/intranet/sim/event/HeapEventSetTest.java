@@ -0,0 +1,84 @@
+package org.intranet.sim.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that the {@link HeapEventSet} hands out events in the same order as
+ * the {@link TreeEventSet}, also when events are cancelled.
+ */
+public class HeapEventSetTest {
+	@Test
+	public void sameOrderAsTreeSet() {
+		final Random rand = new Random(42);
+		final EventSet heap = new HeapEventSet();
+		final EventSet tree = new TreeEventSet();
+		final List<Event> pending = new ArrayList<>();
+
+		for (int n = 0; n < 5000; n++) {
+			final int action = rand.nextInt(3);
+			if (action == 0 && !pending.isEmpty()) {
+				final Event e = pending.remove(rand.nextInt(pending.size()));
+				assertTrue(heap.remove(e));
+				assertTrue(tree.remove(e));
+				assertFalse(heap.contains(e));
+			} else if (action == 1 && !heap.isEmpty()) {
+				final Event first = tree.first();
+				assertSame(first, heap.first());
+				heap.remove(first);
+				tree.remove(first);
+				pending.remove(first);
+			} else {
+				// few distinct times, so the id decides the order often
+				final Event e = new TestEvent(rand.nextInt(50));
+				e.setId(n);
+				heap.add(e);
+				tree.add(e);
+				pending.add(e);
+				assertTrue(heap.contains(e));
+			}
+			assertEquals(tree.size(), heap.size());
+		}
+		assertEquals(tree.toList(), heap.toList());
+		while (!tree.isEmpty()) {
+			final Event first = tree.first();
+			assertSame(first, heap.first());
+			heap.remove(first);
+			tree.remove(first);
+		}
+		assertNull(heap.first());
+	}
+
+	@Test
+	public void removeAbsentEvent() {
+		final EventSet heap = new HeapEventSet();
+		final Event e = new TestEvent(10);
+		e.setId(0);
+		assertFalse(heap.remove(e));
+		heap.add(e);
+		assertTrue(heap.remove(e));
+		assertFalse(heap.remove(e));
+		assertTrue(heap.isEmpty());
+	}
+
+	@Test
+	public void queueWithTreeBackend() {
+		final EventQueue eQ = new EventQueue(new TreeEventSet());
+		final TestEvent late = new TestEvent(20);
+		final TestEvent early = new TestEvent(10);
+		eQ.addEvent(late);
+		eQ.addEvent(early);
+		assertSame(early, eQ.getEventList().get(0));
+		eQ.processEventsUpTo(30);
+		assertTrue(eQ.getEventList().isEmpty());
+	}
+}